@@ -0,0 +1,17 @@
+package com.example.courseselection.common.exception;
+
+import com.example.courseselection.common.result.ResultCode;
+import lombok.Getter;
+
+/**
+ * 服务过载时快速拒绝，由 GlobalExceptionHandler 返回 HTTP 503 并附带 Retry-After。
+ */
+@Getter
+public class ServiceBusyException extends BusinessException {
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(ResultCode.SERVICE_UNAVAILABLE, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.courseselection.common.idempotency;
+
+import com.example.courseselection.common.result.Result;
+import com.example.courseselection.common.result.ResultCode;
+import com.example.courseselection.security.CustomUserDetails;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 选课/退课请求的幂等处理：携带相同 Idempotency-Key 的重试直接返回首次请求的响应，不再进入业务层。
+ * 只保存确定的结果（成功或不会因重试而改变的业务失败）；课程已满、处理中、服务繁忙等暂时性失败释放幂等键，允许客户端重试。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Pattern IDEMPOTENT_PATHS =
+            Pattern.compile("^/course-selection/(select|select-batch|drop/\\d+)$");
+    private static final int MAX_KEY_LENGTH = 128;
+
+    // 重试也不会改变结果的业务码；批量选课要求每一项都是确定结果
+    private static final Set<Integer> TERMINAL_CODES = Set.of(
+            ResultCode.SUCCESS.getCode(),
+            ResultCode.COURSE_NOT_FOUND.getCode(),
+            ResultCode.COURSE_SELECTION_CLOSED.getCode(),
+            ResultCode.ALREADY_SELECTED.getCode(),
+            ResultCode.NOT_SELECTED.getCode(),
+            ResultCode.SCHEDULE_CONFLICT.getCode(),
+            ResultCode.CREDITS_EXCEEDED.getCode(),
+            ResultCode.PREREQUISITE_NOT_MET.getCode(),
+            ResultCode.DROP_TIME_EXPIRED.getCode());
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !StringUtils.hasText(request.getHeader(IDEMPOTENCY_KEY_HEADER))
+                || !IDEMPOTENT_PATHS.matcher(request.getServletPath()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails currentUser)
+                || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // 幂等键按用户和接口隔离
+        String key = currentUser.getId() + ":" + request.getServletPath() + ":" + idempotencyKey;
+
+        Optional<StoredResponse> stored = idempotencyStore.find(key);
+        if (stored.isPresent()) {
+            replay(response, stored.get());
+            return;
+        }
+
+        if (!idempotencyStore.tryBegin(key)) {
+            // 首次请求仍在处理，或恰好在两次查询之间完成
+            stored = idempotencyStore.find(key);
+            if (stored.isPresent()) {
+                replay(response, stored.get());
+            } else {
+                writeInProgress(response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            // 只缓存确定的结果，暂时性失败与服务端错误允许客户端重试
+            if (isDefinitive(responseWrapper.getStatus(), responseWrapper.getContentAsByteArray())) {
+                idempotencyStore.complete(key, new StoredResponse(responseWrapper.getStatus(),
+                        responseWrapper.getContentType(), responseWrapper.getContentAsByteArray()));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyStore.abandon(key);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private boolean isDefinitive(int status, byte[] body) {
+        if (status != HttpServletResponse.SC_OK || body.length == 0) {
+            return false;
+        }
+        try {
+            JsonNode result = objectMapper.readTree(body);
+            if (!TERMINAL_CODES.contains(result.path("code").asInt())) {
+                return false;
+            }
+            JsonNode data = result.path("data");
+            if (data.isArray()) {
+                for (JsonNode item : data) {
+                    if (item.has("code") && !TERMINAL_CODES.contains(item.path("code").asInt())) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        log.debug("Replaying stored response for idempotent request");
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private void writeInProgress(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_CONFLICT);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(Result.error(ResultCode.DUPLICATE_REQUEST)));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.courseselection.common.idempotency;
+
+import java.util.Optional;
+
+public interface IdempotencyStore {
+
+    /**
+     * 占用幂等键，键已存在（处理中或已完成）时返回 false。
+     */
+    boolean tryBegin(String key);
+
+    /**
+     * 查询已完成请求的响应；处理中或不存在时返回空。
+     */
+    Optional<StoredResponse> find(String key);
+
+    void complete(String key, StoredResponse response);
+
+    void abandon(String key);
+}
@@ -0,0 +1,96 @@
+package com.example.courseselection.common.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    @Value("${app.idempotency.ttl-ms:600000}")
+    private long ttlMs;
+
+    @Value("${app.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // 记录写入顺序及当时的条目；键被放弃或重新写入后旧记录不再对应当前条目，淘汰时跳过
+    private final Queue<Map.Entry<String, Entry>> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public boolean tryBegin(String key) {
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(now + ttlMs);
+        Entry existing = entries.putIfAbsent(key, entry);
+        if (existing != null) {
+            if (existing.expiresAt > now || !entries.replace(key, existing, entry)) {
+                return false;
+            }
+        }
+        insertionOrder.add(Map.entry(key, entry));
+        evictOverflow();
+        return true;
+    }
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAt <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entry.response);
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.response = response;
+        }
+    }
+
+    @Override
+    public void abandon(String key) {
+        entries.remove(key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        insertionOrder.removeIf(this::isStale);
+    }
+
+    private void evictOverflow() {
+        // 超出容量时按写入顺序淘汰最早的键
+        while (entries.size() > maxEntries) {
+            Map.Entry<String, Entry> eldest = insertionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            entries.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private boolean isStale(Map.Entry<String, Entry> recorded) {
+        return entries.get(recorded.getKey()) != recorded.getValue();
+    }
+
+    private static final class Entry {
+
+        private final long expiresAt;
+        private volatile StoredResponse response;
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.courseselection.common.idempotency;
+
+import com.example.courseselection.entity.IdempotencyRecord;
+import com.example.courseselection.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * 基于数据库表的幂等存储，多节点部署时共享幂等键。
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Value("${app.idempotency.ttl-ms:600000}")
+    private long ttlMs;
+
+    @Override
+    @Transactional
+    public boolean tryBegin(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyRecordRepository.deleteExpiredKey(key, now);
+        return idempotencyRecordRepository.insertIfAbsent(key, now, now.plusNanos(ttlMs * 1_000_000L)) > 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<StoredResponse> find(String key) {
+        return idempotencyRecordRepository.findById(key)
+                .filter(record -> record.getExpiresAt().isAfter(LocalDateTime.now()))
+                .filter(record -> record.getHttpStatus() != null)
+                .map(this::toStoredResponse);
+    }
+
+    @Override
+    @Transactional
+    public void complete(String key, StoredResponse response) {
+        idempotencyRecordRepository.complete(key, response.getStatus(), response.getContentType(), response.getBody());
+    }
+
+    @Override
+    @Transactional
+    public void abandon(String key) {
+        idempotencyRecordRepository.deleteById(key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:60000}")
+    @Transactional
+    public void evictExpired() {
+        idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private StoredResponse toStoredResponse(IdempotencyRecord record) {
+        return new StoredResponse(record.getHttpStatus(), record.getContentType(), record.getResponseBody());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.courseselection.common.metrics;
+
+import com.example.courseselection.common.result.ResultCode;
+import com.example.courseselection.repository.CourseScheduleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 选课链路指标：成功/拒绝次数用于观察吞吐，超卖课程数用于校验座位扣减的正确性。
+ * 超卖课程数由定时任务统计，采集指标时只读取上次结果，不访问数据库。
+ */
+@Component
+public class SelectionMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter selectedCounter;
+    private final Counter droppedCounter;
+    private final CourseScheduleRepository courseScheduleRepository;
+    private final AtomicLong oversoldSchedules = new AtomicLong();
+
+    public SelectionMetrics(MeterRegistry meterRegistry, CourseScheduleRepository courseScheduleRepository) {
+        this.meterRegistry = meterRegistry;
+        this.courseScheduleRepository = courseScheduleRepository;
+        this.selectedCounter = Counter.builder("course.selection.selected")
+                .description("选课成功次数")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("course.selection.dropped")
+                .description("退课成功次数")
+                .register(meterRegistry);
+        Gauge.builder("course.selection.oversold.schedules", oversoldSchedules, AtomicLong::get)
+                .description("当前人数超过上限的课程安排数量")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.metrics.oversold-check-interval-ms:60000}")
+    public void refreshOversoldSchedules() {
+        oversoldSchedules.set(courseScheduleRepository.countOversoldSchedules());
+    }
+
+    public void recordSelected() {
+        selectedCounter.increment();
+    }
+
+    public void recordDropped() {
+        droppedCounter.increment();
+    }
+
+    public void recordRejected(ResultCode reason) {
+        meterRegistry.counter("course.selection.rejected", "reason", reason.name()).increment();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.courseselection.common.pagination;
+
+import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.result.ResultCode;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 排序字段白名单：客户端传入的排序字段映射为查询中的属性路径，不在白名单中的字段按参数错误拒绝，
+ * 不会原样拼入查询。
+ */
+public final class SortableProperties {
+
+    private final Map<String, String> paths;
+
+    public SortableProperties(Map<String, String> paths) {
+        this.paths = Map.copyOf(paths);
+    }
+
+    public Pageable resolve(Pageable pageable) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            String path = paths.get(order.getProperty());
+            if (path == null) {
+                throw new BusinessException(ResultCode.PARAM_ERROR, "不支持的排序字段：" + order.getProperty());
+            }
+            orders.add(order.withProperty(path));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(orders));
+    }
+}
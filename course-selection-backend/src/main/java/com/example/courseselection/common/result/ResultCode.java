@@ -12,7 +12,10 @@ public enum ResultCode {
     FORBIDDEN(403, "禁止访问"),
     NOT_FOUND(404, "资源不存在"),
     METHOD_NOT_ALLOWED(405, "方法不允许"),
+    DUPLICATE_REQUEST(409, "请求正在处理中，请勿重复提交"),
+    TOO_MANY_REQUESTS(429, "请求过于频繁，请稍后再试"),
     INTERNAL_SERVER_ERROR(500, "服务器内部错误"),
+    SERVICE_UNAVAILABLE(503, "服务繁忙，请稍后再试"),
     
     // 用户相关
     USER_NOT_FOUND(1001, "用户不存在"),
@@ -36,6 +39,10 @@ public enum ResultCode {
     CREDITS_EXCEEDED(3004, "超出最大学分限制"),
     PREREQUISITE_NOT_MET(3005, "不满足前置课程要求"),
     DROP_TIME_EXPIRED(3006, "退课时间已过"),
+    SELECTION_PENDING(3007, "选课请求处理中，请稍后再试"),
+    ALREADY_WAITLISTED(3008, "已在候补队列中"),
+    NOT_WAITLISTED(3009, "未在候补队列中"),
+    COURSE_NOT_FULL(3010, "课程仍有余量，请直接选课"),
     
     // 权限相关
     PERMISSION_DENIED(4001, "权限不足"),
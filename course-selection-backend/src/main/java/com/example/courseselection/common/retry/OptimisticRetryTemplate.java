@@ -0,0 +1,68 @@
+package com.example.courseselection.common.retry;
+
+import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.result.ResultCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 乐观锁冲突重试：在事务外层调用，每次重试都会开启新事务并重新读取数据。
+ * 退避时间按指数增长并加入随机抖动，避免冲突的请求同时重试。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OptimisticRetryTemplate {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.course-selection.optimistic-retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.course-selection.optimistic-retry.base-backoff-ms:20}")
+    private long baseBackoffMs;
+
+    @Value("${app.course-selection.optimistic-retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    public void execute(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("course.selection.optimistic.exhausted", "operation", operation).increment();
+                    log.warn("Optimistic lock retries exhausted for {} after {} attempts", operation, attempt);
+                    throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "数据更新冲突，请稍后再试");
+                }
+                meterRegistry.counter("course.selection.optimistic.retries", "operation", operation).increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << (attempt - 1));
+        long sleepMs = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.courseselection.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Slf4j
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionAdmissionPostProcessor(Environment environment) {
+        int maxConcurrent = environment.getProperty("app.datasource.admission.max-concurrent", Integer.class, 20);
+        long acquireTimeoutMs = environment.getProperty("app.datasource.admission.acquire-timeout-ms", Long.class, 60000L);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionAdmissionDataSource)) {
+                    log.info("Wrapping data source '{}' with connection admission ({} permits)", beanName, maxConcurrent);
+                    return new ConnectionAdmissionDataSource(dataSource, maxConcurrent, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -2,6 +2,7 @@ package com.example.courseselection.controller;
 
 import com.example.courseselection.common.result.Result;
 import com.example.courseselection.dto.request.LoginRequest;
+import com.example.courseselection.dto.request.LogoutRequest;
 import com.example.courseselection.dto.request.RegisterRequest;
 import com.example.courseselection.dto.response.LoginResponse;
 import com.example.courseselection.security.CustomUserDetails;
@@ -37,9 +38,12 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public Result<Void> logout(@AuthenticationPrincipal CustomUserDetails currentUser) {
-        // JWT是无状态的，客户端删除token即可实现登出
-        // 这里可以实现token黑名单机制
+    public Result<Void> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                               @RequestBody(required = false) LogoutRequest request) {
+        // 吊销当前访问令牌和刷新令牌，客户端同时删除本地token；刷新令牌放在请求体中，不进入URL和访问日志
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
         return Result.<Void>success("登出成功", null);
     }
 
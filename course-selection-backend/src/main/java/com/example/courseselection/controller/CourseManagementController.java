@@ -1,13 +1,16 @@
 package com.example.courseselection.controller;
 
 import com.example.courseselection.common.result.Result;
+import com.example.courseselection.common.retry.OptimisticRetryTemplate;
 import com.example.courseselection.dto.request.CourseCreateRequest;
 import com.example.courseselection.dto.request.CourseScheduleCreateRequest;
 import com.example.courseselection.dto.response.CourseScheduleDTO;
+import com.example.courseselection.dto.response.CursorPageDTO;
 import com.example.courseselection.entity.Course;
 import com.example.courseselection.entity.CourseSchedule;
 import com.example.courseselection.entity.enums.ScheduleStatus;
 import com.example.courseselection.service.CourseManagementService;
+import com.example.courseselection.service.StudentSemesterSummaryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -26,6 +29,8 @@ import java.util.List;
 public class CourseManagementController {
 
     private final CourseManagementService courseManagementService;
+    private final OptimisticRetryTemplate optimisticRetryTemplate;
+    private final StudentSemesterSummaryService studentSemesterSummaryService;
 
     @PostMapping("/courses")
     public Result<Course> createCourse(@Valid @RequestBody CourseCreateRequest request) {
@@ -76,18 +81,47 @@ public class CourseManagementController {
         return Result.success("获取课程安排列表成功", schedules);
     }
 
+    @GetMapping("/course-schedules/cursor")
+    public Result<CursorPageDTO<CourseScheduleDTO>> getCourseSchedulesByCursor(
+            @RequestParam(required = false) Long semesterId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        CursorPageDTO<CourseScheduleDTO> schedules = courseManagementService.getCourseSchedulesByCursor(
+            semesterId, cursor, size);
+        return Result.success("获取课程安排列表成功", schedules);
+    }
+
     @PutMapping("/course-schedules/{scheduleId}/status")
     public Result<Void> updateCourseScheduleStatus(
             @PathVariable Long scheduleId,
             @RequestParam ScheduleStatus status) {
         
-        courseManagementService.updateCourseScheduleStatus(scheduleId, status);
+        optimisticRetryTemplate.execute("update-schedule-status",
+            () -> courseManagementService.updateCourseScheduleStatus(scheduleId, status));
         return Result.<Void>success("更新课程安排状态成功", null);
     }
 
+    @PutMapping("/course-schedules/{scheduleId}/capacity")
+    public Result<Void> updateCourseScheduleCapacity(
+            @PathVariable Long scheduleId,
+            @RequestParam Integer maxStudents) {
+        
+        optimisticRetryTemplate.execute("update-schedule-capacity",
+            () -> courseManagementService.updateCourseScheduleCapacity(scheduleId, maxStudents));
+        return Result.<Void>success("更新课程安排容量成功", null);
+    }
+
     @DeleteMapping("/course-schedules/{scheduleId}")
     public Result<Void> deleteCourseSchedule(@PathVariable Long scheduleId) {
-        courseManagementService.deleteCourseSchedule(scheduleId);
+        optimisticRetryTemplate.execute("delete-schedule",
+            () -> courseManagementService.deleteCourseSchedule(scheduleId));
         return Result.<Void>success("删除课程安排成功", null);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/student-semester-summary/rebuild")
+    public Result<Integer> rebuildStudentSemesterSummary() {
+        int rows = studentSemesterSummaryService.rebuild();
+        return Result.success("重建学生学期学分汇总成功", rows);
+    }
+}
@@ -1,20 +1,40 @@
 package com.example.courseselection.controller;
 
 import com.example.courseselection.common.result.Result;
+import com.example.courseselection.dto.request.CourseSelectionBatchRequest;
 import com.example.courseselection.dto.request.CourseSelectionRequest;
 import com.example.courseselection.dto.response.CourseScheduleDTO;
 import com.example.courseselection.dto.response.CourseSelectionDTO;
+import com.example.courseselection.dto.response.CursorPageDTO;
+import com.example.courseselection.dto.response.SelectionItemResultDTO;
+import com.example.courseselection.dto.response.SelectionTicketDTO;
 import com.example.courseselection.security.CustomUserDetails;
+import com.example.courseselection.service.CatalogResponseCache;
+import com.example.courseselection.service.CatalogSnapshotService;
 import com.example.courseselection.service.CourseSelectionService;
+import com.example.courseselection.service.SeatAvailabilityBroadcaster;
+import com.example.courseselection.service.SeatLedger;
+import com.example.courseselection.service.SelectionETagService;
+import com.example.courseselection.service.SelectionQueueService;
+import com.example.courseselection.service.WaitlistService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/course-selection")
@@ -22,6 +42,12 @@ import org.springframework.web.bind.annotation.*;
 public class CourseSelectionController {
 
     private final CourseSelectionService courseSelectionService;
+    private final SeatLedger seatLedger;
+    private final SelectionQueueService selectionQueueService;
+    private final WaitlistService waitlistService;
+    private final SelectionETagService selectionETagService;
+    private final SeatAvailabilityBroadcaster seatAvailabilityBroadcaster;
+    private final CatalogResponseCache catalogResponseCache;
 
     @GetMapping("/available")
     @PreAuthorize("hasRole('STUDENT')")
@@ -29,28 +55,83 @@ public class CourseSelectionController {
             @AuthenticationPrincipal CustomUserDetails currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "asc") String direction,
-            @RequestParam(required = false) String keyword) {
+            @RequestParam(required = false) String keyword,
+            ServletWebRequest webRequest) throws IOException {
         
+        // 未指定排序时，关键字搜索按相关度排序，否则按ID排序
+        if (!StringUtils.hasText(sort)) {
+            sort = StringUtils.hasText(keyword) ? CatalogSnapshotService.RELEVANCE : "id";
+        }
         Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) 
             ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sort));
         
+        if (checkNotModified(webRequest, selectionETagService.getAvailableCoursesETag(currentUser.getId(), pageable, keyword))) {
+            return null;
+        }
+        
+        // 命中课程目录时直接写出缓存的 JSON 字节，只序列化当前学生的状态字段
+        if (catalogResponseCache.writeAvailableCourses(
+                currentUser.getId(), pageable, keyword, "获取可选课程成功", webRequest.getResponse())) {
+            return null;
+        }
+        
         Page<CourseScheduleDTO> courses = courseSelectionService.getAvailableCourses(
             currentUser.getId(), pageable, keyword);
         
         return Result.success("获取可选课程成功", courses);
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('STUDENT')")
+    public SseEmitter streamSeatAvailability() {
+        return seatAvailabilityBroadcaster.subscribe();
+    }
+
     @PostMapping("/select")
     @PreAuthorize("hasRole('STUDENT')")
-    public Result<Void> selectCourse(
+    public Result<SelectionTicketDTO> selectCourse(
             @AuthenticationPrincipal CustomUserDetails currentUser,
             @Valid @RequestBody CourseSelectionRequest request) {
         
+        // 高并发模式：在内存账本中完成判定，不开启事务、不占用数据库连接
+        if (seatLedger.select(currentUser.getId(), request.getCourseScheduleId())) {
+            return Result.<SelectionTicketDTO>success("选课成功", null);
+        }
+
+        // 排队模式：立即返回选课凭证，结果通过 /tickets/{ticketId} 查询
+        if (selectionQueueService.isEnabled()) {
+            SelectionTicketDTO ticket = selectionQueueService.submit(
+                currentUser.getId(), request.getCourseScheduleId());
+            return Result.success("选课请求已排队", ticket);
+        }
+
         courseSelectionService.selectCourse(currentUser.getId(), request.getCourseScheduleId());
-        return Result.<Void>success("选课成功", null);
+        return Result.<SelectionTicketDTO>success("选课成功", null);
+    }
+
+    @PostMapping("/select-batch")
+    @PreAuthorize("hasRole('STUDENT')")
+    public Result<List<SelectionItemResultDTO>> selectCourses(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @Valid @RequestBody CourseSelectionBatchRequest request) {
+        
+        List<SelectionItemResultDTO> results = courseSelectionService.selectCourses(
+            currentUser.getId(), request.getCourseScheduleIds());
+        return Result.success("批量选课完成", results);
+    }
+
+    @GetMapping("/tickets/{ticketId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    public CompletableFuture<Result<SelectionTicketDTO>> getSelectionTicket(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @PathVariable String ticketId,
+            @RequestParam(defaultValue = "0") long waitMs) {
+        
+        return selectionQueueService.getTicket(currentUser.getId(), ticketId, waitMs)
+            .thenApply(ticket -> Result.success("获取选课结果成功", ticket));
     }
 
     @PostMapping("/drop/{courseScheduleId}")
@@ -59,10 +140,34 @@ public class CourseSelectionController {
             @AuthenticationPrincipal CustomUserDetails currentUser,
             @PathVariable Long courseScheduleId) {
         
+        if (seatLedger.drop(currentUser.getId(), courseScheduleId)) {
+            return Result.<Void>success("退课成功", null);
+        }
+
         courseSelectionService.dropCourse(currentUser.getId(), courseScheduleId);
         return Result.<Void>success("退课成功", null);
     }
 
+    @PostMapping("/waitlist/{courseScheduleId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    public Result<Long> joinWaitlist(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @PathVariable Long courseScheduleId) {
+        
+        long position = waitlistService.joinWaitlist(currentUser.getId(), courseScheduleId);
+        return Result.success("加入候补成功", position);
+    }
+
+    @DeleteMapping("/waitlist/{courseScheduleId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    public Result<Void> leaveWaitlist(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @PathVariable Long courseScheduleId) {
+        
+        waitlistService.leaveWaitlist(currentUser.getId(), courseScheduleId);
+        return Result.<Void>success("取消候补成功", null);
+    }
+
     @GetMapping("/my-courses")
     @PreAuthorize("hasRole('STUDENT')")
     public Result<Page<CourseSelectionDTO>> getMySelectedCourses(
@@ -70,12 +175,17 @@ public class CourseSelectionController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "selectionTime") String sort,
-            @RequestParam(defaultValue = "desc") String direction) {
+            @RequestParam(defaultValue = "desc") String direction,
+            ServletWebRequest webRequest) {
         
         Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) 
             ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sort));
         
+        if (checkNotModified(webRequest, selectionETagService.getMySelectedCoursesETag(currentUser.getId(), pageable))) {
+            return null;
+        }
+        
         Page<CourseSelectionDTO> selections = courseSelectionService.getMySelectedCourses(
             currentUser.getId(), pageable);
         
@@ -101,4 +211,40 @@ public class CourseSelectionController {
         
         return Result.success("获取选课学生名单成功", students);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/my-courses/cursor")
+    @PreAuthorize("hasRole('STUDENT')")
+    public Result<CursorPageDTO<CourseSelectionDTO>> getMySelectedCoursesByCursor(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        CursorPageDTO<CourseSelectionDTO> courses = courseSelectionService.getMySelectedCoursesByCursor(
+            currentUser.getId(), cursor, size);
+        
+        return Result.success("获取已选课程成功", courses);
+    }
+
+    @GetMapping("/course/{courseScheduleId}/students/cursor")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    public Result<CursorPageDTO<CourseSelectionDTO>> getStudentsByCourseScheduleByCursor(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @PathVariable Long courseScheduleId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        CursorPageDTO<CourseSelectionDTO> students = courseSelectionService.getStudentsByCourseScheduleByCursor(
+            currentUser.getId(), courseScheduleId, cursor, size);
+        
+        return Result.success("获取选课学生名单成功", students);
+    }
+
+    private boolean checkNotModified(ServletWebRequest webRequest, String eTag) {
+        if (eTag == null) {
+            return false;
+        }
+        // 允许浏览器缓存响应，但每次使用前必须携带 If-None-Match 重新验证
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return webRequest.checkNotModified(eTag);
+    }
+}
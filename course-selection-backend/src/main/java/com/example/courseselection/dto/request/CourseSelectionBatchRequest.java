@@ -0,0 +1,16 @@
+package com.example.courseselection.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CourseSelectionBatchRequest {
+
+    @NotEmpty(message = "课程安排ID列表不能为空")
+    @Size(max = 30, message = "单次最多提交30门课程")
+    private List<@NotNull(message = "课程安排ID不能为空") Long> courseScheduleIds;
+}
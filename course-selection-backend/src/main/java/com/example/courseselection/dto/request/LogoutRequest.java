@@ -0,0 +1,9 @@
+package com.example.courseselection.dto.request;
+
+import lombok.Data;
+
+@Data
+public class LogoutRequest {
+
+    private String refreshToken;
+}
@@ -3,6 +3,7 @@ package com.example.courseselection.dto.response;
 import com.example.courseselection.entity.enums.CourseType;
 import com.example.courseselection.entity.enums.ScheduleStatus;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 
 @Data
+@NoArgsConstructor
 public class CourseScheduleDTO {
     
     private Long id;
@@ -46,4 +48,39 @@ public class CourseScheduleDTO {
     private Boolean isSelected;
     private Boolean canSelect;
     private String selectionMessage;
-}
\ No newline at end of file
+
+    /**
+     * 供 CourseScheduleRepository 中的 JPQL 构造表达式使用，参数顺序与 SCHEDULE_DTO_SELECT 一致。
+     */
+    public CourseScheduleDTO(Long id, String className, Integer maxStudents, Integer currentStudents,
+                             String classroom, List<Map<String, Object>> scheduleTime,
+                             LocalDateTime selectionStartTime, LocalDateTime selectionEndTime, ScheduleStatus status,
+                             Long courseId, String courseCode, String courseName, CourseType courseType,
+                             BigDecimal credits, Integer totalHours, String description, String department,
+                             Long teacherId, String teacherName, String teacherTitle, String teacherDepartment,
+                             Long semesterId, String semesterName) {
+        this.id = id;
+        this.className = className;
+        this.maxStudents = maxStudents;
+        this.currentStudents = currentStudents;
+        this.classroom = classroom;
+        this.scheduleTime = scheduleTime;
+        this.selectionStartTime = selectionStartTime;
+        this.selectionEndTime = selectionEndTime;
+        this.status = status;
+        this.courseId = courseId;
+        this.courseCode = courseCode;
+        this.courseName = courseName;
+        this.courseType = courseType;
+        this.credits = credits;
+        this.totalHours = totalHours;
+        this.description = description;
+        this.department = department;
+        this.teacherId = teacherId;
+        this.teacherName = teacherName;
+        this.teacherTitle = teacherTitle;
+        this.teacherDepartment = teacherDepartment;
+        this.semesterId = semesterId;
+        this.semesterName = semesterName;
+    }
+}
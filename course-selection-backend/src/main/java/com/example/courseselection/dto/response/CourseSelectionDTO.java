@@ -3,6 +3,7 @@ package com.example.courseselection.dto.response;
 import com.example.courseselection.entity.enums.CourseType;
 import com.example.courseselection.entity.enums.SelectionStatus;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 
 @Data
+@NoArgsConstructor
 public class CourseSelectionDTO {
     
     private Long id;
@@ -49,4 +51,46 @@ public class CourseSelectionDTO {
     private String studentName;
     private String studentMajor;
     private String studentClass;
-}
\ No newline at end of file
+
+    /**
+     * 供 CourseSelectionRepository 中的 JPQL 构造表达式使用，参数顺序与 SELECTION_DTO_SELECT 一致。
+     */
+    public CourseSelectionDTO(Long id, LocalDateTime selectionTime, SelectionStatus status,
+                              BigDecimal grade, BigDecimal gradePoint, Boolean isPassed,
+                              Long courseScheduleId, String className, String classroom,
+                              List<Map<String, Object>> scheduleTime,
+                              Long courseId, String courseCode, String courseName, CourseType courseType,
+                              BigDecimal credits, Integer totalHours, String description,
+                              Long teacherId, String teacherName, String teacherTitle,
+                              Long semesterId, String semesterName,
+                              Long studentId, String studentNumber, String studentName,
+                              String studentMajor, String studentClass) {
+        this.id = id;
+        this.selectionTime = selectionTime;
+        this.status = status;
+        this.grade = grade;
+        this.gradePoint = gradePoint;
+        this.isPassed = isPassed;
+        this.courseScheduleId = courseScheduleId;
+        this.className = className;
+        this.classroom = classroom;
+        this.scheduleTime = scheduleTime;
+        this.courseId = courseId;
+        this.courseCode = courseCode;
+        this.courseName = courseName;
+        this.courseType = courseType;
+        this.credits = credits;
+        this.totalHours = totalHours;
+        this.description = description;
+        this.teacherId = teacherId;
+        this.teacherName = teacherName;
+        this.teacherTitle = teacherTitle;
+        this.semesterId = semesterId;
+        this.semesterName = semesterName;
+        this.studentId = studentId;
+        this.studentNumber = studentNumber;
+        this.studentName = studentName;
+        this.studentMajor = studentMajor;
+        this.studentClass = studentClass;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.courseselection.dto.response;
+
+import com.example.courseselection.common.pagination.KeysetCursor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+    private List<T> content;
+    private Integer size;
+    private Boolean hasNext;
+    // 下一页游标，没有下一页时为空
+    private String nextCursor;
+
+    /**
+     * rows 按 size + 1 条查询，多出的一条只用于判断是否还有下一页。
+     */
+    public static <T> CursorPageDTO<T> of(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> pageRows = hasNext ? List.copyOf(rows.subList(0, size)) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        return new CursorPageDTO<>(pageRows, pageRows.size(), hasNext, nextCursor);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.courseselection.dto.response;
+
+import com.example.courseselection.common.result.ResultCode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SelectionItemResultDTO {
+
+    private Long courseScheduleId;
+    private Boolean success;
+    private Integer code;
+    private String message;
+
+    public static SelectionItemResultDTO success(Long courseScheduleId) {
+        return new SelectionItemResultDTO(courseScheduleId, true, ResultCode.SUCCESS.getCode(), "选课成功");
+    }
+
+    public static SelectionItemResultDTO failure(Long courseScheduleId, Integer code, String message) {
+        return new SelectionItemResultDTO(courseScheduleId, false, code, message);
+    }
+}
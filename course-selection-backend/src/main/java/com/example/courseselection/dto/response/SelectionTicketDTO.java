@@ -0,0 +1,23 @@
+package com.example.courseselection.dto.response;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class SelectionTicketDTO {
+
+    public enum TicketStatus {
+        PENDING,
+        SUCCESS,
+        FAILED
+    }
+
+    private String ticketId;
+    private Long courseScheduleId;
+    private TicketStatus status;
+    private Integer resultCode;
+    private String resultMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -63,6 +63,10 @@ public class CourseSchedule {
     @Column(name = "status")
     private ScheduleStatus status = ScheduleStatus.PENDING;
     
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+    
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
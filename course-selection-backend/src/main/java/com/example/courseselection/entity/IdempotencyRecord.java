@@ -0,0 +1,32 @@
+package com.example.courseselection.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+    
+    @Id
+    @Column(name = "idempotency_key", length = 200)
+    private String idempotencyKey;
+    
+    @Column(name = "http_status")
+    private Integer httpStatus;
+    
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+    
+    @Lob
+    @Column(name = "response_body", columnDefinition = "BLOB")
+    private byte[] responseBody;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
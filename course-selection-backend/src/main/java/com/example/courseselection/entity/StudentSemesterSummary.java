@@ -0,0 +1,37 @@
+package com.example.courseselection.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "student_semester_summary",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "semester_id"}))
+public class StudentSemesterSummary {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    @Column(name = "semester_id", nullable = false)
+    private Long semesterId;
+    
+    @Column(name = "total_credits", nullable = false, precision = 5, scale = 1)
+    private BigDecimal totalCredits = BigDecimal.ZERO;
+    
+    @Column(name = "selected_count", nullable = false)
+    private Integer selectedCount = 0;
+    
+    // 每次汇总变化时递增，用作学生选课集合的版本号（由原生 SQL 维护，不参与乐观锁）
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.example.courseselection.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 令牌吊销记录：token_id 不为空时吊销单个令牌（jti），否则吊销该用户在 not_before 之前签发的全部令牌。
+ */
+@Data
+@Entity
+@Table(name = "token_revocations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_token_id", columnNames = "token_id")}, indexes = {
+        @Index(name = "idx_created_at", columnList = "created_at"),
+        @Index(name = "idx_expires_at", columnList = "expires_at")})
+public class TokenRevocation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "token_id", length = 64)
+    private String tokenId;
+    
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "not_before")
+    private LocalDateTime notBefore;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // 被吊销令牌的最晚过期时间，之后记录可删除
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -3,6 +3,7 @@ package com.example.courseselection.entity;
 import com.example.courseselection.entity.enums.Gender;
 import com.example.courseselection.entity.enums.UserRole;
 import com.example.courseselection.entity.enums.UserStatus;
+import com.example.courseselection.security.UserSecurityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -15,7 +16,7 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "users")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, UserSecurityListener.class})
 @EqualsAndHashCode(callSuper = false)
 public class User {
     
@@ -0,0 +1,49 @@
+package com.example.courseselection.entity;
+
+import com.example.courseselection.entity.enums.WaitlistStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "waitlist",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "course_schedule_id"}),
+       indexes = @Index(name = "idx_waitlist_schedule_status", columnList = "course_schedule_id, status, queued_at"))
+@EntityListeners(AuditingEntityListener.class)
+@EqualsAndHashCode(callSuper = false)
+public class Waitlist {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private Student student;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_schedule_id", nullable = false)
+    private CourseSchedule courseSchedule;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+    
+    @Column(name = "queued_at", nullable = false)
+    private LocalDateTime queuedAt;
+    
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+    
+    @Column(name = "remark", length = 200)
+    private String remark;
+    
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,7 @@
+package com.example.courseselection.entity.enums;
+
+public enum WaitlistStatus {
+    WAITING,
+    PROMOTED,
+    CANCELLED
+}
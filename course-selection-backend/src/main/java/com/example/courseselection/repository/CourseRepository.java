@@ -1,5 +1,6 @@
 package com.example.courseselection.repository;
 
+import com.example.courseselection.common.pagination.SortableProperties;
 import com.example.courseselection.entity.Course;
 import com.example.courseselection.entity.enums.CourseStatus;
 import com.example.courseselection.entity.enums.CourseType;
@@ -11,11 +12,25 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
     
+    /**
+     * 课程列表可用的排序字段。
+     */
+    SortableProperties SORTABLE = new SortableProperties(Map.of(
+            "id", "id",
+            "courseCode", "courseCode",
+            "courseName", "courseName",
+            "courseType", "courseType",
+            "credits", "credits",
+            "totalHours", "totalHours",
+            "department", "department",
+            "createdAt", "createdAt"));
+    
     Optional<Course> findByCourseCode(String courseCode);
     
     boolean existsByCourseCode(String courseCode);
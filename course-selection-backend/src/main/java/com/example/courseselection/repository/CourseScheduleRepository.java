@@ -1,23 +1,68 @@
 package com.example.courseselection.repository;
 
+import com.example.courseselection.common.pagination.SortableProperties;
+import com.example.courseselection.dto.response.CourseScheduleDTO;
 import com.example.courseselection.entity.CourseSchedule;
 import com.example.courseselection.entity.enums.ScheduleStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
 public interface CourseScheduleRepository extends JpaRepository<CourseSchedule, Long> {
     
+    /**
+     * 课程安排列表投影：只查询 CourseScheduleDTO 所需的列，直接构造 DTO，不加载实体。
+     */
+    String SCHEDULE_DTO_SELECT = "SELECT new com.example.courseselection.dto.response.CourseScheduleDTO(" +
+            "cs.id, cs.className, cs.maxStudents, cs.currentStudents, cs.classroom, cs.scheduleTime, " +
+            "cs.selectionStartTime, cs.selectionEndTime, cs.status, " +
+            "c.id, c.courseCode, c.courseName, c.courseType, c.credits, c.totalHours, c.description, c.department, " +
+            "t.id, u.realName, t.title, t.department, s.id, s.name) ";
+    
+    String SCHEDULE_DTO_FROM = "FROM CourseSchedule cs JOIN cs.course c LEFT JOIN cs.teacher t LEFT JOIN t.user u " +
+            "JOIN cs.semester s ";
+
+    /**
+     * 课程安排列表投影可用的排序字段，与课程目录快照支持的排序字段一致。
+     */
+    SortableProperties SCHEDULE_DTO_SORTABLE = new SortableProperties(Map.of(
+            "id", "cs.id",
+            "className", "cs.className",
+            "courseCode", "c.courseCode",
+            "courseName", "c.courseName",
+            "credits", "c.credits",
+            "maxStudents", "cs.maxStudents",
+            "currentStudents", "cs.currentStudents",
+            "teacherName", "u.realName",
+            "selectionStartTime", "cs.selectionStartTime",
+            "selectionEndTime", "cs.selectionEndTime"));
+    
     List<CourseSchedule> findBySemesterId(Long semesterId);
     
+    @Query(value = SCHEDULE_DTO_SELECT + SCHEDULE_DTO_FROM +
+                   "WHERE (:semesterId IS NULL OR s.id = :semesterId)",
+           countQuery = "SELECT COUNT(cs) FROM CourseSchedule cs " +
+                        "WHERE (:semesterId IS NULL OR cs.semester.id = :semesterId)")
+    Page<CourseScheduleDTO> findScheduleDTOs(@Param("semesterId") Long semesterId, Pageable pageable);
+    
+    @Query(SCHEDULE_DTO_SELECT + SCHEDULE_DTO_FROM +
+           "WHERE (:semesterId IS NULL OR s.id = :semesterId) " +
+           "AND cs.id > :afterId ORDER BY cs.id ASC")
+    List<CourseScheduleDTO> findScheduleDTOKeysetPageAfterId(@Param("semesterId") Long semesterId,
+                                                             @Param("afterId") Long afterId,
+                                                             Pageable limit);
+    
     List<CourseSchedule> findByTeacherId(Long teacherId);
     
     List<CourseSchedule> findByCourseId(Long courseId);
@@ -26,6 +71,8 @@ public interface CourseScheduleRepository extends JpaRepository<CourseSchedule,
     
     Page<CourseSchedule> findBySemesterIdAndStatus(Long semesterId, ScheduleStatus status, Pageable pageable);
     
+    List<CourseSchedule> findBySemesterIdAndStatus(Long semesterId, ScheduleStatus status);
+    
     @Query("SELECT cs FROM CourseSchedule cs WHERE cs.semester.id = :semesterId " +
            "AND cs.status = 'OPEN' " +
            "AND cs.selectionStartTime <= :now " +
@@ -33,6 +80,36 @@ public interface CourseScheduleRepository extends JpaRepository<CourseSchedule,
     List<CourseSchedule> findAvailableCoursesForSelection(@Param("semesterId") Long semesterId, 
                                                          @Param("now") LocalDateTime now);
     
+    @Query(value = SCHEDULE_DTO_SELECT + SCHEDULE_DTO_FROM +
+                   "WHERE s.id = :semesterId " +
+                   "AND cs.status = 'OPEN' " +
+                   "AND cs.selectionStartTime <= :now " +
+                   "AND cs.selectionEndTime >= :now " +
+                   "AND (:keyword IS NULL OR LOWER(c.courseName) LIKE :keyword ESCAPE '!' " +
+                   "OR LOWER(c.courseCode) LIKE :keyword ESCAPE '!' " +
+                   "OR LOWER(u.realName) LIKE :keyword ESCAPE '!')",
+           countQuery = "SELECT COUNT(cs) FROM CourseSchedule cs JOIN cs.course c LEFT JOIN cs.teacher t LEFT JOIN t.user u " +
+                        "WHERE cs.semester.id = :semesterId " +
+                        "AND cs.status = 'OPEN' " +
+                        "AND cs.selectionStartTime <= :now " +
+                        "AND cs.selectionEndTime >= :now " +
+                        "AND (:keyword IS NULL OR LOWER(c.courseName) LIKE :keyword ESCAPE '!' " +
+                        "OR LOWER(c.courseCode) LIKE :keyword ESCAPE '!' " +
+                        "OR LOWER(u.realName) LIKE :keyword ESCAPE '!')")
+    Page<CourseScheduleDTO> searchAvailableCoursesForSelection(@Param("semesterId") Long semesterId,
+                                                               @Param("now") LocalDateTime now,
+                                                               @Param("keyword") String keyword,
+                                                               Pageable pageable);
+    
+    @Query(SCHEDULE_DTO_SELECT + SCHEDULE_DTO_FROM + "WHERE s.id = :semesterId AND cs.status = 'OPEN'")
+    List<CourseScheduleDTO> findOpenScheduleDTOsBySemesterId(@Param("semesterId") Long semesterId);
+    
+    @Query(SCHEDULE_DTO_SELECT + SCHEDULE_DTO_FROM + "WHERE cs.id IN :ids")
+    List<CourseScheduleDTO> findScheduleDTOsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT cs FROM CourseSchedule cs JOIN FETCH cs.course WHERE cs.id IN :ids")
+    List<CourseSchedule> findAllWithCourseByIdIn(@Param("ids") Collection<Long> ids);
+    
     @Query("SELECT cs FROM CourseSchedule cs WHERE cs.teacher.id = :teacherId AND cs.semester.id = :semesterId")
     List<CourseSchedule> findByTeacherIdAndSemesterId(@Param("teacherId") Long teacherId, 
                                                      @Param("semesterId") Long semesterId);
@@ -47,4 +124,28 @@ public interface CourseScheduleRepository extends JpaRepository<CourseSchedule,
                                                        @Param("teacherId") Long teacherId,
                                                        @Param("status") ScheduleStatus status,
                                                        Pageable pageable);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CourseSchedule cs SET cs.currentStudents = cs.currentStudents + 1, cs.version = cs.version + 1 " +
+           "WHERE cs.id = :courseScheduleId AND cs.currentStudents < cs.maxStudents")
+    int reserveSeat(@Param("courseScheduleId") Long courseScheduleId);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CourseSchedule cs SET cs.currentStudents = cs.currentStudents - 1, cs.version = cs.version + 1 " +
+           "WHERE cs.id = :courseScheduleId AND cs.currentStudents > 0")
+    int releaseSeat(@Param("courseScheduleId") Long courseScheduleId);
+    
+    @Query("SELECT COUNT(cs) FROM CourseSchedule cs WHERE cs.currentStudents > cs.maxStudents")
+    long countOversoldSchedules();
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CourseSchedule cs SET cs.currentStudents = cs.currentStudents + :delta, cs.version = cs.version + 1 " +
+           "WHERE cs.id = :courseScheduleId")
+    int adjustCurrentStudents(@Param("courseScheduleId") Long courseScheduleId, @Param("delta") int delta);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CourseSchedule cs SET cs.currentStudents = :currentStudents, cs.version = cs.version + 1 " +
+           "WHERE cs.id = :courseScheduleId")
+    int syncCurrentStudents(@Param("courseScheduleId") Long courseScheduleId,
+                            @Param("currentStudents") int currentStudents);
 }
\ No newline at end of file
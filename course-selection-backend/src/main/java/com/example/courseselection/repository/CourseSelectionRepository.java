@@ -1,5 +1,7 @@
 package com.example.courseselection.repository;
 
+import com.example.courseselection.common.pagination.SortableProperties;
+import com.example.courseselection.dto.response.CourseSelectionDTO;
 import com.example.courseselection.entity.CourseSelection;
 import com.example.courseselection.entity.enums.SelectionStatus;
 import org.springframework.data.domain.Page;
@@ -10,20 +12,99 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
 public interface CourseSelectionRepository extends JpaRepository<CourseSelection, Long> {
     
+    /**
+     * 选课记录列表投影：只查询 CourseSelectionDTO 所需的列，直接构造 DTO，不加载实体。
+     */
+    String SELECTION_DTO_SELECT = "SELECT new com.example.courseselection.dto.response.CourseSelectionDTO(" +
+            "sel.id, sel.selectionTime, sel.status, sel.grade, sel.gradePoint, sel.isPassed, " +
+            "cs.id, cs.className, cs.classroom, cs.scheduleTime, " +
+            "c.id, c.courseCode, c.courseName, c.courseType, c.credits, c.totalHours, c.description, " +
+            "t.id, tu.realName, t.title, s.id, s.name, " +
+            "st.id, st.studentNumber, su.realName, st.major, st.className) ";
+    
+    String SELECTION_DTO_FROM = "FROM CourseSelection sel JOIN sel.courseSchedule cs JOIN cs.course c " +
+            "LEFT JOIN cs.teacher t LEFT JOIN t.user tu JOIN cs.semester s JOIN sel.student st JOIN st.user su ";
+    
+    /**
+     * 选课记录列表投影可用的排序字段。
+     */
+    SortableProperties SELECTION_DTO_SORTABLE = new SortableProperties(Map.of(
+            "id", "sel.id",
+            "selectionTime", "sel.selectionTime",
+            "status", "sel.status",
+            "grade", "sel.grade",
+            "courseCode", "c.courseCode",
+            "courseName", "c.courseName",
+            "credits", "c.credits",
+            "teacherName", "tu.realName",
+            "studentNumber", "st.studentNumber",
+            "studentName", "su.realName"));
+    
     List<CourseSelection> findByStudentId(Long studentId);
     
     List<CourseSelection> findByCourseScheduleId(Long courseScheduleId);
     
+    @Query(value = SELECTION_DTO_SELECT + SELECTION_DTO_FROM + "WHERE cs.id = :courseScheduleId",
+           countQuery = "SELECT COUNT(sel) FROM CourseSelection sel WHERE sel.courseSchedule.id = :courseScheduleId")
+    Page<CourseSelectionDTO> findSelectionDTOsByCourseScheduleId(@Param("courseScheduleId") Long courseScheduleId,
+                                                                 Pageable pageable);
+    
+    @Query(value = SELECTION_DTO_SELECT + SELECTION_DTO_FROM + "WHERE st.id = :studentId AND sel.status = :status",
+           countQuery = "SELECT COUNT(sel) FROM CourseSelection sel " +
+                        "WHERE sel.student.id = :studentId AND sel.status = :status")
+    Page<CourseSelectionDTO> findSelectionDTOsByStudentIdAndStatus(@Param("studentId") Long studentId,
+                                                                   @Param("status") SelectionStatus status,
+                                                                   Pageable pageable);
+    
     Page<CourseSelection> findByStudentIdAndStatus(Long studentId, SelectionStatus status, Pageable pageable);
     
     Optional<CourseSelection> findByStudentIdAndCourseScheduleId(Long studentId, Long courseScheduleId);
     
+    @Query(SELECTION_DTO_SELECT + SELECTION_DTO_FROM + "WHERE st.id = :studentId AND sel.status = :status " +
+           "ORDER BY sel.selectionTime DESC, sel.id DESC")
+    List<CourseSelectionDTO> findFirstKeysetPageByStudent(@Param("studentId") Long studentId,
+                                                          @Param("status") SelectionStatus status,
+                                                          Pageable limit);
+    
+    @Query(SELECTION_DTO_SELECT + SELECTION_DTO_FROM + "WHERE st.id = :studentId AND sel.status = :status " +
+           "AND (sel.selectionTime < :selectionTime OR (sel.selectionTime = :selectionTime AND sel.id < :id)) " +
+           "ORDER BY sel.selectionTime DESC, sel.id DESC")
+    List<CourseSelectionDTO> findKeysetPageByStudentBefore(@Param("studentId") Long studentId,
+                                                           @Param("status") SelectionStatus status,
+                                                           @Param("selectionTime") LocalDateTime selectionTime,
+                                                           @Param("id") Long id,
+                                                           Pageable limit);
+    
+    @Query(SELECTION_DTO_SELECT + SELECTION_DTO_FROM + "WHERE cs.id = :courseScheduleId " +
+           "ORDER BY sel.selectionTime ASC, sel.id ASC")
+    List<CourseSelectionDTO> findFirstKeysetPageByCourseSchedule(@Param("courseScheduleId") Long courseScheduleId,
+                                                                 Pageable limit);
+    
+    @Query(SELECTION_DTO_SELECT + SELECTION_DTO_FROM + "WHERE cs.id = :courseScheduleId " +
+           "AND (sel.selectionTime > :selectionTime OR (sel.selectionTime = :selectionTime AND sel.id > :id)) " +
+           "ORDER BY sel.selectionTime ASC, sel.id ASC")
+    List<CourseSelectionDTO> findKeysetPageByCourseScheduleAfter(@Param("courseScheduleId") Long courseScheduleId,
+                                                                 @Param("selectionTime") LocalDateTime selectionTime,
+                                                                 @Param("id") Long id,
+                                                                 Pageable limit);
+    
+    List<CourseSelection> findByStudentIdAndCourseScheduleIdIn(Long studentId, Collection<Long> courseScheduleIds);
+    
+    @Query(SELECTION_DTO_SELECT + SELECTION_DTO_FROM +
+           "WHERE st.id = :studentId AND s.id = :semesterId AND sel.status = :status")
+    List<CourseSelectionDTO> findSelectionDTOsByStudentIdAndSemesterIdAndStatus(@Param("studentId") Long studentId,
+                                                                                @Param("semesterId") Long semesterId,
+                                                                                @Param("status") SelectionStatus status);
+    
     boolean existsByStudentIdAndCourseScheduleIdAndStatus(Long studentId, Long courseScheduleId, SelectionStatus status);
     
     @Query("SELECT cs FROM CourseSelection cs WHERE cs.student.id = :studentId " +
@@ -0,0 +1,37 @@
+package com.example.courseselection.repository;
+
+import com.example.courseselection.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO idempotency_keys (idempotency_key, created_at, expires_at) " +
+                   "VALUES (:key, :createdAt, :expiresAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("key") String key,
+                       @Param("createdAt") LocalDateTime createdAt,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.httpStatus = :httpStatus, r.contentType = :contentType, " +
+           "r.responseBody = :responseBody WHERE r.idempotencyKey = :key")
+    int complete(@Param("key") String key,
+                 @Param("httpStatus") Integer httpStatus,
+                 @Param("contentType") String contentType,
+                 @Param("responseBody") byte[] responseBody);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.expiresAt <= :now")
+    int deleteExpiredKey(@Param("key") String key, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,57 @@
+package com.example.courseselection.repository;
+
+import com.example.courseselection.entity.StudentSemesterSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@Repository
+public interface StudentSemesterSummaryRepository extends JpaRepository<StudentSemesterSummary, Long> {
+    
+    Optional<StudentSemesterSummary> findByStudentIdAndSemesterId(Long studentId, Long semesterId);
+    
+    @Query("SELECT s.totalCredits FROM StudentSemesterSummary s " +
+           "WHERE s.studentId = :studentId AND s.semesterId = :semesterId")
+    Optional<BigDecimal> findTotalCredits(@Param("studentId") Long studentId, @Param("semesterId") Long semesterId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO student_semester_summary " +
+                   "(student_id, semester_id, total_credits, selected_count, version, updated_at) " +
+                   "VALUES (:studentId, :semesterId, :credits, :count, 1, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE total_credits = total_credits + VALUES(total_credits), " +
+                   "selected_count = selected_count + VALUES(selected_count), version = version + 1, updated_at = NOW()",
+           nativeQuery = true)
+    int adjust(@Param("studentId") Long studentId,
+               @Param("semesterId") Long semesterId,
+               @Param("credits") BigDecimal credits,
+               @Param("count") int count);
+    
+    @Modifying
+    @Query(value = "UPDATE student_semester_summary SET total_credits = 0, selected_count = 0, " +
+                   "version = version + 1, updated_at = NOW()",
+           nativeQuery = true)
+    int resetAll();
+    
+    @Modifying
+    @Query(value = "INSERT INTO student_semester_summary " +
+                   "(student_id, semester_id, total_credits, selected_count, version, updated_at) " +
+                   "SELECT sel.student_id, sch.semester_id, SUM(c.credits), COUNT(*), 1, NOW() " +
+                   "FROM course_selections sel " +
+                   "JOIN course_schedules sch ON sel.course_schedule_id = sch.id " +
+                   "JOIN courses c ON sch.course_id = c.id " +
+                   "WHERE sel.status = 'SELECTED' " +
+                   "GROUP BY sel.student_id, sch.semester_id " +
+                   "ON DUPLICATE KEY UPDATE total_credits = VALUES(total_credits), " +
+                   "selected_count = VALUES(selected_count), version = version + 1, updated_at = NOW()",
+           nativeQuery = true)
+    int rebuildFromSelections();
+    
+    @Query("SELECT COALESCE(SUM(s.version), 0) FROM StudentSemesterSummary s, Student st " +
+           "WHERE s.studentId = st.id AND st.user.id = :userId")
+    long sumVersionsByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,31 @@
+package com.example.courseselection.repository;
+
+import com.example.courseselection.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    
+    List<TokenRevocation> findByExpiresAtAfter(LocalDateTime now);
+    
+    List<TokenRevocation> findByCreatedAtGreaterThanEqual(LocalDateTime since);
+    
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO token_revocations (token_id, user_id, created_at, expires_at) " +
+                   "VALUES (:tokenId, :userId, :createdAt, :expiresAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("tokenId") String tokenId,
+                       @Param("userId") Long userId,
+                       @Param("createdAt") LocalDateTime createdAt,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
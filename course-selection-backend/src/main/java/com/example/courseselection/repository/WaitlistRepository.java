@@ -0,0 +1,37 @@
+package com.example.courseselection.repository;
+
+import com.example.courseselection.entity.Waitlist;
+import com.example.courseselection.entity.enums.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<Waitlist, Long> {
+    
+    Optional<Waitlist> findByStudentIdAndCourseScheduleId(Long studentId, Long courseScheduleId);
+    
+    List<Waitlist> findByStudentIdAndStatus(Long studentId, WaitlistStatus status);
+    
+    @Query("SELECT COUNT(w) FROM Waitlist w WHERE w.courseSchedule.id = :courseScheduleId " +
+           "AND w.status = 'WAITING' AND w.queuedAt <= :queuedAt")
+    long countWaitingAhead(@Param("courseScheduleId") Long courseScheduleId,
+                           @Param("queuedAt") LocalDateTime queuedAt);
+    
+    // 多节点并行消费：已被其他事务锁定的候补记录直接跳过
+    @Query(value = "SELECT * FROM waitlist WHERE course_schedule_id = :courseScheduleId " +
+                   "AND status = 'WAITING' ORDER BY queued_at, id LIMIT 1 FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<Waitlist> lockNextWaiting(@Param("courseScheduleId") Long courseScheduleId);
+    
+    @Query("SELECT DISTINCT w.courseSchedule.id FROM Waitlist w " +
+           "WHERE w.status = 'WAITING' " +
+           "AND w.courseSchedule.status = 'OPEN' " +
+           "AND w.courseSchedule.currentStudents < w.courseSchedule.maxStudents")
+    List<Long> findScheduleIdsWithFreeSeats();
+}
@@ -0,0 +1,186 @@
+package com.example.courseselection.security;
+
+import com.example.courseselection.common.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt 密码编码器：哈希计算在独立的有界线程池中执行，登录高峰时最多占用固定数量的 CPU 核心，
+ * 不再挤占选课接口的请求线程。队列已满或排队超时直接返回 HTTP 503 并附带 Retry-After，不在请求线程上堆积。
+ * 排队容量按等待时限推算：排在队尾的任务也能在 max-wait-ms 内算完，超出部分提交时立即拒绝；
+ * 同时排队加计算中的任务总数不超过 Tomcat 请求线程数的四分之一，等待哈希的请求线程不会耗尽整个线程池。
+ * 存储的哈希强度低于当前配置时，登录成功后尽力重新编码（见 RehashingAuthenticationProvider）。
+ */
+@Slf4j
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedCounter;
+    private final Timer queueWaitTimer;
+
+    @Value("${app.course-selection.password-hashing.bcrypt-strength:10}")
+    private int strength;
+
+    // 0 表示使用一半的 CPU 核心
+    @Value("${app.course-selection.password-hashing.threads:0}")
+    private int threads;
+
+    // 0 表示按 Tomcat 请求线程数推算
+    @Value("${app.course-selection.password-hashing.queue-capacity:0}")
+    private int queueCapacity;
+
+    @Value("${app.course-selection.password-hashing.max-wait-ms:300}")
+    private long maxWaitMs;
+
+    // 单次哈希耗时估计，0 表示启动时实测
+    @Value("${app.course-selection.password-hashing.hash-ms:0}")
+    private long hashMs;
+
+    @Value("${app.course-selection.password-hashing.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int requestThreads;
+
+    private BCryptPasswordEncoder delegate;
+    private ThreadPoolExecutor executor;
+
+    public BoundedPasswordEncoder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.rejectedCounter = Counter.builder("course.selection.password.rejected")
+                .description("密码哈希线程池已满或排队超时被拒绝的次数")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("course.selection.password.queue-wait")
+                .description("密码哈希任务排队等待时间")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        delegate = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        long expectedHashMs = hashMs > 0 ? hashMs : measureHashMs();
+        int derivedCapacity = queueCapacityFor(requestThreads, poolSize, maxWaitMs, expectedHashMs);
+        int capacity = queueCapacity > 0 ? Math.min(queueCapacity, derivedCapacity) : derivedCapacity;
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("course.selection.password.queue", executor, pool -> pool.getQueue().size())
+                .description("等待计算的密码哈希任务数")
+                .register(meterRegistry);
+        Gauge.builder("course.selection.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在计算的密码哈希任务数")
+                .register(meterRegistry);
+        log.info("Password hashing pool started with {} threads, queue capacity {}, BCrypt strength {} (~{} ms per hash)",
+                poolSize, capacity, strength, expectedHashMs);
+    }
+
+    /**
+     * 排队容量：队尾任务需等前面各轮算完，再加上自身一轮，合计不超过等待时限；
+     * 且计算中与排队中的任务合计不超过请求线程数的四分之一。至少保留 1 个排队位置。
+     */
+    static int queueCapacityFor(int requestThreads, int poolSize, long maxWaitMs, long hashMs) {
+        long withinWait = (maxWaitMs / Math.max(1, hashMs) - 1) * poolSize;
+        long withinThreads = requestThreads / 4 - poolSize;
+        return (int) Math.max(1, Math.min(withinWait, withinThreads));
+    }
+
+    /**
+     * 尽力重新编码：线程池繁忙时返回 null，保留原哈希，不影响已通过校验的登录。
+     */
+    public String tryEncode(CharSequence rawPassword) {
+        try {
+            return encode(rawPassword);
+        } catch (ServiceBusyException e) {
+            log.info("Password rehash skipped, hashing pool busy");
+            return null;
+        }
+    }
+
+    private long measureHashMs() {
+        // 首次计算包含类加载与 JIT 预热，取第二次的耗时
+        String sample = delegate.encode("calibration");
+        long startedAt = System.nanoTime();
+        delegate.matches("calibration", sample);
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // 只解析哈希前缀中的强度；有任务排队时推迟重新编码，留到之后的登录
+        return delegate.upgradeEncoding(encodedPassword) && executor.getQueue().isEmpty();
+    }
+
+    private <T> T execute(String operation, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Timer hashTimer = meterRegistry.timer("course.selection.password.hash", "operation", operation);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceBusyException("登录人数过多，请稍后再试", retryAfterSeconds);
+        }
+
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 尚未开始的任务被取消后，工作线程取到时直接跳过
+            future.cancel(false);
+            rejectedCounter.increment();
+            throw new ServiceBusyException("登录人数过多，请稍后再试", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("登录人数过多，请稍后再试", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.example.courseselection.entity.User;
 import com.example.courseselection.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,7 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -31,4 +32,17 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         return CustomUserDetails.create(user);
     }
+
+    /**
+     * 登录成功且存储的哈希强度低于当前配置时，由认证流程调用，保存按当前强度重新编码的密码。
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByUsername(user.getUsername(), newPassword);
+        if (user instanceof CustomUserDetails details) {
+            details.setPassword(newPassword);
+        }
+        return user;
+    }
 }
\ No newline at end of file
@@ -1,20 +1,31 @@
 package com.example.courseselection.security;
 
 import com.example.courseselection.entity.enums.UserRole;
+import com.example.courseselection.entity.enums.UserStatus;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtTokenProvider {
 
+    private final TokenRevocationService tokenRevocationService;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -24,8 +35,26 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
+    @Value("${jwt.verified-cache-size:100000}")
+    private int verifiedCacheSize;
+
+    // 签名密钥与解析器只构建一次，二者均不可变、线程安全
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // 最近验证通过的令牌，按签名部分索引，到令牌过期时间失效
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
     public String generateToken(Authentication authentication) {
@@ -37,6 +66,7 @@ public class JwtTokenProvider {
                 .claim("username", userPrincipal.getUsername())
                 .claim("role", userPrincipal.getRole().name())
                 .claim("realName", userPrincipal.getRealName())
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date())
                 .expiration(expiryDate)
                 .signWith(getSigningKey())
@@ -51,6 +81,7 @@ public class JwtTokenProvider {
                 .claim("username", username)
                 .claim("role", role.name())
                 .claim("realName", realName)
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date())
                 .expiration(expiryDate)
                 .signWith(getSigningKey())
@@ -63,6 +94,7 @@ public class JwtTokenProvider {
         return Jwts.builder()
                 .subject(Long.toString(userId))
                 .claim("type", "refresh")
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date())
                 .expiration(expiryDate)
                 .signWith(getSigningKey())
@@ -89,10 +121,18 @@ public class JwtTokenProvider {
         return claims.get("realName", String.class);
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * 验证令牌并返回其声明；令牌无效、已过期或已吊销时返回 null。调用方应使用返回的声明，不要再次解析令牌。
+     */
+    public Claims verifyToken(String token) {
         try {
-            parseToken(token);
-            return true;
+            Claims claims = parseToken(token);
+            // 吊销检查只访问内存，不缓存结果，吊销后立即生效
+            if (tokenRevocationService.isRevoked(claims)) {
+                log.debug("Revoked JWT token for user {}", claims.getSubject());
+                return null;
+            }
+            return claims;
         } catch (MalformedJwtException ex) {
             log.error("Invalid JWT token: {}", ex.getMessage());
         } catch (ExpiredJwtException ex) {
@@ -104,7 +144,31 @@ public class JwtTokenProvider {
         } catch (Exception ex) {
             log.error("JWT token validation error: {}", ex.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public boolean validateToken(String token) {
+        return verifyToken(token) != null;
+    }
+
+    /**
+     * 仅凭访问令牌中的声明构造认证主体，不查询用户表；刷新令牌或缺少角色声明时返回 null。
+     * 令牌签发时用户必为正常状态，之后的状态变化依赖较短的令牌有效期与令牌吊销。
+     */
+    public CustomUserDetails getPrincipalFromClaims(Claims claims) {
+        String role = claims.get("role", String.class);
+        if (role == null || "refresh".equals(claims.get("type", String.class))) {
+            return null;
+        }
+        return new CustomUserDetails(
+                Long.parseLong(claims.getSubject()),
+                claims.get("username", String.class),
+                null,
+                null,
+                claims.get("realName", String.class),
+                UserRole.valueOf(role),
+                UserStatus.ACTIVE
+        );
     }
 
     public boolean isRefreshToken(String token) {
@@ -126,11 +190,40 @@ public class JwtTokenProvider {
         return expiration.before(new Date());
     }
 
+    @Scheduled(fixedDelayString = "${jwt.verified-cache-eviction-interval-ms:60000}")
+    public void evictExpiredTokens() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(verified -> verified.expiresAt <= now);
+    }
+
     private Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        // 命中时仍比较完整令牌，签名相同但头部或载荷被篡改的令牌不会复用缓存结果
+        String signature = token != null ? token.substring(token.lastIndexOf('.') + 1) : null;
+        VerifiedToken verified = signature != null && !signature.isEmpty() ? verifiedTokens.get(signature) : null;
+        if (verified != null && verified.token.equals(token)) {
+            if (verified.expiresAt > System.currentTimeMillis()) {
+                return verified.claims;
+            }
+            verifiedTokens.remove(signature, verified);
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null && verifiedTokens.size() < verifiedCacheSize) {
+            verifiedTokens.put(signature, new VerifiedToken(token, claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    private static final class VerifiedToken {
+
+        private final String token;
+        private final Claims claims;
+        private final long expiresAt;
+
+        private VerifiedToken(String token, Claims claims, long expiresAt) {
+            this.token = token;
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
     }
 }
\ No newline at end of file
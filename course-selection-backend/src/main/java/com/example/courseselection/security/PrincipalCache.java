@@ -0,0 +1,79 @@
+package com.example.courseselection.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证主体缓存：按用户ID缓存 JWT 认证时构造的 CustomUserDetails，稳态下认证不再查询 users 表。
+ * 条目在 ttl-ms 后过期，用户信息更新或删除后由 UserSecurityListener 立即移除；缓存的主体不保存密码。
+ */
+@Component
+public class PrincipalCache {
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.course-selection.principal-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.course-selection.principal-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${app.course-selection.principal-cache.max-entries:50000}")
+    private int maxEntries;
+
+    public CustomUserDetails get(Long userId) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt - System.nanoTime() <= 0) {
+            entries.remove(userId, entry);
+            return null;
+        }
+        return entry.principal;
+    }
+
+    public void put(CustomUserDetails principal) {
+        if (!enabled) {
+            return;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(principal.getId())) {
+            // 达到上限时不再缓存新用户，由定期清理腾出空间
+            return;
+        }
+        CustomUserDetails cached = new CustomUserDetails(principal.getId(), principal.getUsername(), null,
+                principal.getEmail(), principal.getRealName(), principal.getRole(), principal.getStatus());
+        entries.put(principal.getId(), new Entry(cached, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+    }
+
+    public void evict(Long userId) {
+        if (userId != null) {
+            entries.remove(userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.principal-cache.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.expiresAt - now <= 0);
+    }
+
+    private static final class Entry {
+
+        private final CustomUserDetails principal;
+        private final long expiresAt;
+
+        private Entry(CustomUserDetails principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
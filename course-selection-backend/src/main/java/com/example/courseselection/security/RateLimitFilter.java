@@ -0,0 +1,165 @@
+package com.example.courseselection.security;
+
+import com.example.courseselection.common.result.Result;
+import com.example.courseselection.common.result.ResultCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按用户限流：选课、退课、候补、选课结果查询与其他查询接口分别使用独立的令牌桶，超出预算的请求在进入业务层前直接返回 429。
+ * 座位推送（/stream）是长连接订阅，不计入限流；选课结果长轮询只在请求进入时计一次，异步分派不再经过本过滤器。
+ */
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private enum Budget {
+        SELECT,
+        DROP,
+        WAITLIST,
+        TICKET,
+        READ
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final byte[] rejectedBody;
+    private final Map<Long, TokenBucket[]> buckets = new ConcurrentHashMap<>();
+
+    @Value("${app.course-selection.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.course-selection.rate-limit.select.capacity:5}")
+    private int selectCapacity;
+
+    @Value("${app.course-selection.rate-limit.select.refill-per-second:1}")
+    private double selectRefillPerSecond;
+
+    @Value("${app.course-selection.rate-limit.drop.capacity:3}")
+    private int dropCapacity;
+
+    @Value("${app.course-selection.rate-limit.drop.refill-per-second:0.5}")
+    private double dropRefillPerSecond;
+
+    @Value("${app.course-selection.rate-limit.waitlist.capacity:3}")
+    private int waitlistCapacity;
+
+    @Value("${app.course-selection.rate-limit.waitlist.refill-per-second:0.5}")
+    private double waitlistRefillPerSecond;
+
+    @Value("${app.course-selection.rate-limit.ticket.capacity:10}")
+    private int ticketCapacity;
+
+    @Value("${app.course-selection.rate-limit.ticket.refill-per-second:2}")
+    private double ticketRefillPerSecond;
+
+    @Value("${app.course-selection.rate-limit.read.capacity:20}")
+    private int readCapacity;
+
+    @Value("${app.course-selection.rate-limit.read.refill-per-second:5}")
+    private double readRefillPerSecond;
+
+    public RateLimitFilter(MeterRegistry meterRegistry, ObjectMapper objectMapper) throws JsonProcessingException {
+        this.meterRegistry = meterRegistry;
+        // 拒绝响应预先序列化，限流路径上不再做任何序列化
+        this.rejectedBody = objectMapper.writeValueAsString(Result.error(ResultCode.TOO_MANY_REQUESTS))
+                .getBytes(StandardCharsets.UTF_8);
+        meterRegistry.gaugeMapSize("course.selection.rate-limit.buckets", List.of(), buckets);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || resolveBudget(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails currentUser)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Budget budget = resolveBudget(request);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(currentUser.getId(), userId -> newBuckets(now))[budget.ordinal()];
+
+        if (!bucket.tryConsume(now)) {
+            meterRegistry.counter("course.selection.rate-limited", "budget", budget.name()).increment();
+            response.setStatus(ResultCode.TOO_MANY_REQUESTS.getCode());
+            response.setContentType("application/json;charset=UTF-8");
+            response.setContentLength(rejectedBody.length);
+            response.getOutputStream().write(rejectedBody);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(userBuckets -> {
+            for (TokenBucket bucket : userBuckets) {
+                if (!bucket.isFull(now)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private TokenBucket[] newBuckets(long now) {
+        TokenBucket[] userBuckets = new TokenBucket[Budget.values().length];
+        userBuckets[Budget.SELECT.ordinal()] = new TokenBucket(selectCapacity, selectRefillPerSecond, now);
+        userBuckets[Budget.DROP.ordinal()] = new TokenBucket(dropCapacity, dropRefillPerSecond, now);
+        userBuckets[Budget.WAITLIST.ordinal()] = new TokenBucket(waitlistCapacity, waitlistRefillPerSecond, now);
+        userBuckets[Budget.TICKET.ordinal()] = new TokenBucket(ticketCapacity, ticketRefillPerSecond, now);
+        userBuckets[Budget.READ.ordinal()] = new TokenBucket(readCapacity, readRefillPerSecond, now);
+        return userBuckets;
+    }
+
+    private Budget resolveBudget(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (!path.startsWith("/course-selection/")) {
+            return null;
+        }
+        String method = request.getMethod();
+        if ("/course-selection/stream".equals(path)) {
+            return null;
+        }
+        if (path.startsWith("/course-selection/tickets/")) {
+            return "GET".equals(method) ? Budget.TICKET : null;
+        }
+        if (path.startsWith("/course-selection/waitlist/")) {
+            return "POST".equals(method) || "DELETE".equals(method) ? Budget.WAITLIST : null;
+        }
+        if (path.startsWith("/course-selection/drop/")) {
+            return "POST".equals(method) ? Budget.DROP : null;
+        }
+        if ("GET".equals(method)) {
+            return Budget.READ;
+        }
+        // 选课与批量选课
+        return "POST".equals(method) ? Budget.SELECT : null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.courseselection.security;
+
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+
+/**
+ * 登录成功后尽力将强度不足的旧哈希重新编码：哈希线程池繁忙时跳过，保留原哈希，已通过校验的登录不会因此失败。
+ * 父类自带的重新编码会在线程池拒绝时让登录失败，因此不设置其 UserDetailsPasswordService。
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+
+    public RehashingAuthenticationProvider(BoundedPasswordEncoder passwordEncoder,
+                                           UserDetailsPasswordService userDetailsPasswordService) {
+        super(passwordEncoder);
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            String newPassword = passwordEncoder.tryEncode(authentication.getCredentials().toString());
+            if (newPassword != null) {
+                user = userDetailsPasswordService.updatePassword(user, newPassword);
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
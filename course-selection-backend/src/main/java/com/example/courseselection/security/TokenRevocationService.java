@@ -0,0 +1,229 @@
+package com.example.courseselection.security;
+
+import com.example.courseselection.entity.TokenRevocation;
+import com.example.courseselection.repository.TokenRevocationRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 令牌吊销：登出时吊销单个令牌（jti），停用账号时吊销该用户此前签发的全部令牌（not-before）。
+ * 吊销记录写入 token_revocations 表，各节点定期增量拉取到内存；认证时只查内存，
+ * 单个令牌先经布隆过滤器判断，绝大多数未吊销的令牌无需查找哈希表。记录在被吊销令牌过期后清理。
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+
+    @Value("${jwt.refresh-expiration}")
+    private long maxTokenLifetimeMs;
+
+    @Value("${app.course-selection.token-revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${app.course-selection.token-revocation.poll-overlap-ms:10000}")
+    private long pollOverlapMs;
+
+    // jti → 令牌过期时间（毫秒）
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // 用户ID → 该时间之前签发的令牌均无效
+    private final Map<Long, UserNotBefore> userNotBefore = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile LocalDateTime lastPollTime;
+
+    public TokenRevocationService(TokenRevocationRepository tokenRevocationRepository, MeterRegistry meterRegistry) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        Gauge.builder("course.selection.token.revocations", revokedTokens, Map::size)
+                .description("内存中已吊销的令牌数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 判断已验证签名的令牌是否被吊销，只访问内存。
+     */
+    public boolean isRevoked(Claims claims) {
+        String tokenId = claims.getId();
+        BloomFilter filter = bloomFilter;
+        if (tokenId != null && filter != null && filter.mightContain(tokenId) && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        if (userNotBefore.isEmpty() || claims.getIssuedAt() == null) {
+            return false;
+        }
+        UserNotBefore notBefore = userNotBefore.get(Long.parseLong(claims.getSubject()));
+        return notBefore != null && claims.getIssuedAt().getTime() < notBefore.notBefore;
+    }
+
+    /**
+     * 吊销单个令牌，以 token_id 唯一键条件写入；返回 false 表示该令牌已被吊销（包括并发吊销中落后的一方），
+     * 或是没有 jti 的旧令牌无法单独吊销。
+     */
+    @Transactional
+    public boolean revokeToken(Claims claims) {
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            return false;
+        }
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setTokenId(claims.getId());
+        revocation.setUserId(Long.parseLong(claims.getSubject()));
+        revocation.setCreatedAt(LocalDateTime.now());
+        revocation.setExpiresAt(toLocalDateTime(claims.getExpiration().getTime()));
+        boolean inserted = tokenRevocationRepository.insertIfAbsent(revocation.getTokenId(), revocation.getUserId(),
+                revocation.getCreatedAt(), revocation.getExpiresAt()) > 0;
+        apply(revocation);
+        return inserted;
+    }
+
+    /**
+     * 吊销用户此前签发的全部令牌；可能在其他事务提交后调用，因此使用独立事务。
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void revokeUserTokens(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setUserId(userId);
+        revocation.setNotBefore(now);
+        revocation.setCreatedAt(now);
+        revocation.setExpiresAt(now.plusNanos(maxTokenLifetimeMs * 1_000_000));
+        tokenRevocationRepository.save(revocation);
+        apply(revocation);
+        log.info("Revoked all tokens issued to user {} before {}", userId, now);
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.token-revocation.poll-interval-ms:2000}")
+    public void poll() {
+        LocalDateTime pollTime = LocalDateTime.now();
+        // 首次加载全部未过期记录，之后按创建时间增量拉取，回看一段时间以覆盖提交顺序与节点时钟差异
+        List<TokenRevocation> revocations = lastPollTime == null
+                ? tokenRevocationRepository.findByExpiresAtAfter(pollTime)
+                : tokenRevocationRepository.findByCreatedAtGreaterThanEqual(
+                        lastPollTime.minusNanos(pollOverlapMs * 1_000_000));
+        revocations.forEach(this::apply);
+        lastPollTime = pollTime;
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.token-revocation.cleanup-interval-ms:600000}")
+    @Transactional
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+            userNotBefore.values().removeIf(notBefore -> notBefore.expiresAt <= now);
+            rebuildBloomFilter();
+        }
+        int deleted = tokenRevocationRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired token revocations", deleted);
+        }
+    }
+
+    private synchronized void apply(TokenRevocation revocation) {
+        long expiresAt = toEpochMilli(revocation.getExpiresAt());
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        if (revocation.getTokenId() != null) {
+            if (revokedTokens.put(revocation.getTokenId(), expiresAt) == null) {
+                if (bloomFilter == null || revokedTokens.size() > bloomFilter.capacity) {
+                    rebuildBloomFilter();
+                } else {
+                    bloomFilter.add(revocation.getTokenId());
+                }
+            }
+        } else if (revocation.getUserId() != null && revocation.getNotBefore() != null) {
+            UserNotBefore candidate = new UserNotBefore(toEpochMilli(revocation.getNotBefore()), expiresAt);
+            userNotBefore.merge(revocation.getUserId(), candidate,
+                    (current, added) -> added.notBefore > current.notBefore ? added : current);
+        }
+    }
+
+    private void rebuildBloomFilter() {
+        BloomFilter filter = new BloomFilter(Math.max(expectedEntries, revokedTokens.size() * 2));
+        revokedTokens.keySet().forEach(filter::add);
+        bloomFilter = filter;
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+    }
+
+    private static final class UserNotBefore {
+
+        private final long notBefore;
+        private final long expiresAt;
+
+        private UserNotBefore(long notBefore, long expiresAt) {
+            this.notBefore = notBefore;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 只增不删的布隆过滤器，约 10 位/条目、7 个哈希函数，误判率约 1%；条目过期后整体重建。
+     */
+    private static final class BloomFilter {
+
+        private static final int HASHES = 7;
+
+        private final AtomicLongArray bits;
+        private final int mask;
+        private final int capacity;
+
+        private BloomFilter(int capacity) {
+            int bitCount = Integer.highestOneBit(Math.max(1024, capacity * 10 - 1)) << 1;
+            this.bits = new AtomicLongArray(bitCount >>> 6);
+            this.mask = bitCount - 1;
+            this.capacity = capacity;
+        }
+
+        private void add(String key) {
+            int h1 = mix(key.hashCode());
+            int h2 = mix(h1) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                long bitMask = 1L << bit;
+                bits.getAndUpdate(bit >>> 6, word -> word | bitMask);
+            }
+        }
+
+        private boolean mightContain(String key) {
+            int h1 = mix(key.hashCode());
+            int h2 = mix(h1) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int mix(int h) {
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+            h *= 0xC2B2AE35;
+            return h ^ (h >>> 16);
+        }
+    }
+}
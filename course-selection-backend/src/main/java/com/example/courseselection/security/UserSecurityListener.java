@@ -0,0 +1,52 @@
+package com.example.courseselection.security;
+
+import com.example.courseselection.entity.User;
+import com.example.courseselection.entity.enums.UserStatus;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 用户实体更新（状态、角色等）或删除后移除对应的认证主体缓存；
+ * 事务提交后再移除一次，避免提交前的并发请求把旧数据重新放入缓存。
+ * 账号被停用或删除时，提交后吊销该用户此前签发的全部令牌。
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSecurityListener {
+
+    private final PrincipalCache principalCache;
+    // 延迟获取，避免实体监听器与 JPA 仓库之间的循环依赖
+    private final ObjectProvider<TokenRevocationService> tokenRevocationService;
+
+    @PostUpdate
+    public void onUserUpdated(User user) {
+        onUserChanged(user.getId(), user.getStatus() != UserStatus.ACTIVE);
+    }
+
+    @PostRemove
+    public void onUserRemoved(User user) {
+        onUserChanged(user.getId(), true);
+    }
+
+    private void onUserChanged(Long userId, boolean revokeTokens) {
+        principalCache.evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.evict(userId);
+                    if (revokeTokens) {
+                        tokenRevocationService.getObject().revokeUserTokens(userId);
+                    }
+                }
+            });
+        } else if (revokeTokens) {
+            tokenRevocationService.getObject().revokeUserTokens(userId);
+        }
+    }
+}
@@ -14,6 +14,8 @@ import com.example.courseselection.repository.StudentRepository;
 import com.example.courseselection.repository.TeacherRepository;
 import com.example.courseselection.repository.UserRepository;
 import com.example.courseselection.security.JwtTokenProvider;
+import com.example.courseselection.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,6 +26,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 @Slf4j
 @Service
@@ -36,11 +39,14 @@ public class AuthService {
     private final TeacherRepository teacherRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
-    @Transactional
+    /**
+     * 登录不开启事务：密码校验在哈希线程池中排队和计算期间不占用数据库连接，之后的查询各自使用短事务。
+     */
     public LoginResponse login(LoginRequest request) {
         // 验证用户名和密码
         Authentication authentication = authenticationManager.authenticate(
@@ -105,11 +111,12 @@ public class AuthService {
     }
 
     public LoginResponse refreshToken(String refreshToken) {
-        if (!tokenProvider.validateToken(refreshToken) || !tokenProvider.isRefreshToken(refreshToken)) {
+        Claims claims = tokenProvider.verifyToken(refreshToken);
+        if (claims == null || !"refresh".equals(claims.get("type", String.class))) {
             throw new BusinessException(ResultCode.TOKEN_INVALID, "无效的刷新令牌");
         }
 
-        Long userId = tokenProvider.getUserIdFromToken(refreshToken);
+        Long userId = Long.parseLong(claims.getSubject());
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND));
 
@@ -117,6 +124,11 @@ public class AuthService {
             throw new BusinessException(ResultCode.USER_DISABLED);
         }
 
+        // 刷新令牌只能使用一次：先按 jti 唯一键写入吊销记录，写入成功的请求才换发新令牌，并发刷新只有一个成功
+        if (!tokenRevocationService.revokeToken(claims)) {
+            throw new BusinessException(ResultCode.TOKEN_INVALID, "刷新令牌已失效");
+        }
+
         // 生成新的访问令牌
         String newAccessToken = tokenProvider.generateToken(
                 user.getId(), user.getUsername(), user.getRole(), user.getRealName()
@@ -128,6 +140,16 @@ public class AuthService {
         return new LoginResponse(newAccessToken, newRefreshToken, jwtExpiration / 1000, userInfo);
     }
 
+    public void logout(String accessToken, String refreshToken) {
+        // 令牌无效、已过期或已吊销时无需处理
+        for (String token : new String[]{accessToken, refreshToken}) {
+            Claims claims = StringUtils.hasText(token) ? tokenProvider.verifyToken(token) : null;
+            if (claims != null) {
+                tokenRevocationService.revokeToken(claims);
+            }
+        }
+    }
+
     private void createStudentProfile(User user, RegisterRequest request) {
         // 检查学号是否已存在
         if (request.getStudentNumber() != null && 
@@ -0,0 +1,245 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.dto.response.CourseScheduleDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * 可选课程列表的响应缓存：同一页对所有学生相同的部分（课程信息与分页信息）只序列化一次，缓存为 UTF-8 字节，
+ * 每次请求只序列化当前学生的状态字段（实时已选人数、是否已选、能否选课）并拼接到每门课程的 JSON 对象末尾，直接写入响应流。
+ * 缓存键包含目录快照版本与选课时间窗口序号，目录变化后旧条目整体失效；条目数超过上限时淘汰最久未访问的条目。
+ */
+@Slf4j
+@Component
+public class CatalogResponseCache {
+
+    private static final byte[] CONTENT_START = "\"content\":[".getBytes(StandardCharsets.UTF_8);
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CourseSelectionService courseSelectionService;
+    private final ObjectMapper objectMapper;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Value("${app.course-selection.catalog-cache.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.course-selection.catalog-cache.response-cache.max-entries:2000}")
+    private int maxEntries;
+
+    private final Map<String, CachedPage> pages = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+                    return size() > maxEntries;
+                }
+            });
+    private volatile long cachedVersion = -1;
+
+    public CatalogResponseCache(CatalogSnapshotService catalogSnapshotService,
+                                CourseSelectionService courseSelectionService,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.courseSelectionService = courseSelectionService;
+        this.objectMapper = objectMapper;
+        this.hitCounter = meterRegistry.counter("course.selection.catalog.response-cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("course.selection.catalog.response-cache", "result", "miss");
+        Gauge.builder("course.selection.catalog.response-cache.entries", pages, Map::size)
+                .description("可选课程列表响应缓存条目数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 从缓存写出可选课程列表的完整响应；课程目录快照不可用或排序无法在快照中完成时返回 false，由调用方走常规路径。
+     */
+    public boolean writeAvailableCourses(Long userId, Pageable pageable, String keyword, String message,
+                                         HttpServletResponse response) throws IOException {
+        if (!enabled) {
+            return false;
+        }
+        CatalogSnapshotService.CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot().orElse(null);
+        if (snapshot == null) {
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        CachedPage page = getOrBuild(snapshot, pageable, keyword, now);
+        if (page == null) {
+            return false;
+        }
+
+        List<CourseScheduleDTO> states = courseSelectionService.getStudentCourseStates(
+                userId, snapshot.getSemesterId(), page.schedules);
+
+        ByteArrayOutputStream studentParts = new ByteArrayOutputStream(states.size() * 96);
+        int[] partEnds = new int[states.size()];
+        for (int i = 0; i < states.size(); i++) {
+            writeStudentState(studentParts, states.get(i));
+            partEnds[i] = studentParts.size();
+        }
+        byte[] studentBytes = studentParts.toByteArray();
+
+        byte[] head = ("{\"code\":200,\"message\":" + objectMapper.writeValueAsString(message) + ",\"data\":")
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] tail = (",\"timestamp\":" + System.currentTimeMillis() + "}").getBytes(StandardCharsets.UTF_8);
+
+        int itemCount = page.items.length;
+        // 每门课程额外写出结尾的右括号，课程之间以逗号分隔
+        int contentLength = head.length + page.pageHead.length + studentBytes.length + page.pageTail.length
+                + tail.length + itemCount + Math.max(0, itemCount - 1);
+        for (byte[] item : page.items) {
+            contentLength += item.length;
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(contentLength);
+
+        OutputStream out = response.getOutputStream();
+        out.write(head);
+        out.write(page.pageHead);
+        int partStart = 0;
+        for (int i = 0; i < itemCount; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(page.items[i]);
+            out.write(studentBytes, partStart, partEnds[i] - partStart);
+            out.write('}');
+            partStart = partEnds[i];
+        }
+        out.write(page.pageTail);
+        out.write(tail);
+        out.flush();
+        return true;
+    }
+
+    private CachedPage getOrBuild(CatalogSnapshotService.CatalogSnapshot snapshot, Pageable pageable,
+                                  String keyword, LocalDateTime now) throws IOException {
+        if (snapshot.getVersion() != cachedVersion) {
+            synchronized (this) {
+                if (snapshot.getVersion() != cachedVersion) {
+                    // 目录版本变化，旧版本的缓存条目不会再被命中
+                    pages.clear();
+                    cachedVersion = snapshot.getVersion();
+                }
+            }
+        }
+
+        String key = snapshot.getSemesterId() + ":" + snapshot.getVersion() + ":"
+                + snapshot.getSelectionWindowEpoch(now) + ":" + pageable.getPageNumber() + ":"
+                + pageable.getPageSize() + ":" + pageable.getSort() + ":" + CourseSearchIndex.normalize(keyword);
+        CachedPage cached = pages.get(key);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+
+        missCounter.increment();
+        Page<CourseScheduleDTO> shared = snapshot.findAvailable(pageable, keyword, now).orElse(null);
+        if (shared == null) {
+            return null;
+        }
+        CachedPage built = build(shared);
+        if (built != null && snapshot.getVersion() == cachedVersion) {
+            pages.putIfAbsent(key, built);
+        }
+        return built;
+    }
+
+    private CachedPage build(Page<CourseScheduleDTO> shared) throws IOException {
+        List<CourseScheduleDTO> schedules = shared.getContent();
+        byte[][] items = new byte[schedules.size()][];
+        for (int i = 0; i < schedules.size(); i++) {
+            // 已选人数按请求取实时值，不进入共享部分；去掉结尾的右括号，以便拼接学生状态字段
+            CourseScheduleDTO dto = schedules.get(i);
+            Integer currentStudents = dto.getCurrentStudents();
+            dto.setCurrentStudents(null);
+            byte[] json = objectMapper.writeValueAsBytes(dto);
+            dto.setCurrentStudents(currentStudents);
+            items[i] = Arrays.copyOf(json, json.length - 1);
+        }
+
+        // 以序号占位序列化分页信息，再在占位处切分出课程列表前后的字节
+        List<Integer> placeholders = IntStream.range(0, schedules.size()).boxed().toList();
+        byte[] envelope = objectMapper.writeValueAsBytes(
+                new PageImpl<>(placeholders, shared.getPageable(), shared.getTotalElements()));
+        byte[] marker = objectMapper.writeValueAsBytes(placeholders);
+        int contentStart = indexOf(envelope, CONTENT_START, 0);
+        if (contentStart < 0 || indexOf(envelope, marker, contentStart + CONTENT_START.length - 1)
+                != contentStart + CONTENT_START.length - 1) {
+            log.warn("Unexpected page serialization format, catalog response cache disabled for this page");
+            return null;
+        }
+        int listStart = contentStart + CONTENT_START.length;
+        int listEnd = listStart - 1 + marker.length - 1;
+
+        byte[] pageHead = Arrays.copyOf(envelope, listStart);
+        byte[] pageTail = Arrays.copyOfRange(envelope, listEnd, envelope.length);
+        return new CachedPage(new ArrayList<>(schedules), items, pageHead, pageTail);
+    }
+
+    private void writeStudentState(ByteArrayOutputStream out, CourseScheduleDTO state) throws IOException {
+        StringBuilder fields = new StringBuilder(96);
+        if (state.getCurrentStudents() != null) {
+            fields.append(",\"currentStudents\":").append(state.getCurrentStudents());
+        }
+        fields.append(",\"isSelected\":").append(state.getIsSelected())
+                .append(",\"canSelect\":").append(state.getCanSelect())
+                .append(",\"selectionMessage\":").append(objectMapper.writeValueAsString(state.getSelectionMessage()));
+        out.write(fields.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int indexOf(byte[] source, byte[] target, int from) {
+        outer:
+        for (int i = from; i <= source.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (source[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static final class CachedPage {
+
+        // 共享的课程信息，只读，用于计算学生状态
+        private final List<CourseScheduleDTO> schedules;
+        private final byte[][] items;
+        private final byte[] pageHead;
+        private final byte[] pageTail;
+
+        private CachedPage(List<CourseScheduleDTO> schedules, byte[][] items, byte[] pageHead, byte[] pageTail) {
+            this.schedules = schedules;
+            this.items = items;
+            this.pageHead = pageHead;
+            this.pageTail = pageTail;
+        }
+    }
+}
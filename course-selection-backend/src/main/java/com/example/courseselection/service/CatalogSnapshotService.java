@@ -0,0 +1,416 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.dto.response.CourseScheduleDTO;
+import com.example.courseselection.entity.Semester;
+import com.example.courseselection.entity.enums.ScheduleStatus;
+import com.example.courseselection.repository.CourseScheduleRepository;
+import com.example.courseselection.repository.SemesterRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 当前学期课程目录快照：开放课程预先关联课程、教师、学期信息并转换为 DTO，连同关键字倒排索引整体替换发布。
+ * 课程安排变更后记录变更的课程安排，由后台任务合并后增量重建；读请求只访问不可变快照，不查询数据库。
+ */
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+
+    public static final String RELEVANCE = "relevance";
+
+    // 内存估算：单个 DTO（不含字符串内容）与单条上课时间安排的近似大小
+    private static final long DTO_BASE_BYTES = 480;
+    private static final long SCHEDULE_ENTRY_BYTES = 240;
+
+    private static final Map<String, Comparator<CourseScheduleDTO>> SORTABLE_PROPERTIES = Map.of(
+            "id", nullsLast(CourseScheduleDTO::getId),
+            "className", nullsLast(CourseScheduleDTO::getClassName),
+            "courseCode", nullsLast(CourseScheduleDTO::getCourseCode),
+            "courseName", nullsLast(CourseScheduleDTO::getCourseName),
+            "credits", nullsLast(CourseScheduleDTO::getCredits),
+            "maxStudents", nullsLast(CourseScheduleDTO::getMaxStudents),
+            "currentStudents", nullsLast(CourseScheduleDTO::getCurrentStudents),
+            "teacherName", nullsLast(CourseScheduleDTO::getTeacherName),
+            "selectionStartTime", nullsLast(CourseScheduleDTO::getSelectionStartTime),
+            "selectionEndTime", nullsLast(CourseScheduleDTO::getSelectionEndTime));
+
+    private final CourseScheduleRepository courseScheduleRepository;
+    private final SemesterRepository semesterRepository;
+    private final SeatCountTable seatCountTable;
+    private final SeatLedger seatLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Timer buildTimer;
+
+    @Value("${app.course-selection.catalog-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.course-selection.catalog-cache.refresh-interval-ms:10000}")
+    private long refreshIntervalMs;
+
+    private final Set<Long> changedScheduleIds = ConcurrentHashMap.newKeySet();
+    private final AtomicLong versionSequence = new AtomicLong();
+    private volatile CatalogSnapshot snapshot;
+
+    public CatalogSnapshotService(CourseScheduleRepository courseScheduleRepository,
+                                  SemesterRepository semesterRepository,
+                                  SeatCountTable seatCountTable,
+                                  SeatLedger seatLedger,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry) {
+        this.courseScheduleRepository = courseScheduleRepository;
+        this.semesterRepository = semesterRepository;
+        this.seatCountTable = seatCountTable;
+        this.seatLedger = seatLedger;
+        this.eventPublisher = eventPublisher;
+        this.buildTimer = Timer.builder("course.selection.catalog.snapshot.build")
+                .description("课程目录快照构建耗时")
+                .register(meterRegistry);
+        Gauge.builder("course.selection.catalog.snapshot.schedules", this,
+                        service -> service.snapshot != null ? service.snapshot.schedules.size() : 0)
+                .description("课程目录快照中的课程安排数量")
+                .register(meterRegistry);
+        Gauge.builder("course.selection.catalog.seat-counts", seatCountTable, SeatCountTable::size)
+                .description("实时已选人数表中的课程安排数量")
+                .register(meterRegistry);
+        Gauge.builder("course.selection.catalog.snapshot.bytes", this,
+                        service -> service.snapshot != null ? service.snapshot.footprintBytes : 0)
+                .description("课程目录快照估算的内存占用（字节）")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<CatalogSnapshot> getSnapshot() {
+        return enabled ? Optional.ofNullable(snapshot) : Optional.empty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        changedScheduleIds.add(event.getCourseScheduleId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuildIfStale();
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.catalog-cache.rebuild-check-ms:200}")
+    public synchronized void rebuildIfStale() {
+        if (!enabled) {
+            return;
+        }
+        CatalogSnapshot current = snapshot;
+        boolean expired = current == null
+                || current.builtAt.isBefore(LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(refreshIntervalMs)));
+        try {
+            if (expired) {
+                changedScheduleIds.clear();
+                rebuild();
+            } else if (!changedScheduleIds.isEmpty()) {
+                // 多次变更合并为一次增量更新
+                Set<Long> changed = new HashSet<>(changedScheduleIds);
+                changedScheduleIds.removeAll(changed);
+                applyChanges(current, changed);
+            }
+        } catch (Exception e) {
+            // 下次检查时整体重建
+            snapshot = null;
+            log.warn("Catalog snapshot rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        Semester currentSemester = semesterRepository.findCurrentSemester().orElse(null);
+        if (currentSemester == null) {
+            snapshot = null;
+            return;
+        }
+
+        long seatCountVersion = seatCountTable.getVersion();
+        List<CourseScheduleDTO> schedules = courseScheduleRepository
+                .findOpenScheduleDTOsBySemesterId(currentSemester.getId()).stream()
+                .sorted(SORTABLE_PROPERTIES.get("id"))
+                .toList();
+
+        publishReloaded(seatCountTable.reset(currentStudentsOf(schedules), seatCountVersion));
+
+        // 定期刷新时目录内容未变化则沿用原版本号，避免客户端缓存无谓失效
+        CatalogSnapshot current = snapshot;
+        long version = current != null && current.semesterId.equals(currentSemester.getId())
+                && sameCatalog(current.schedules, schedules)
+                ? current.version : versionSequence.incrementAndGet();
+        snapshot = new CatalogSnapshot(version, currentSemester.getId(),
+                schedules, CourseSearchIndex.build(schedules), footprintOf(schedules), LocalDateTime.now());
+        long elapsed = System.nanoTime() - start;
+        buildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Catalog snapshot v{} built with {} schedules in {} ms",
+                snapshot.version, schedules.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private synchronized void applyChanges(CatalogSnapshot current, Set<Long> changed) {
+        long start = System.nanoTime();
+        Map<Long, CourseScheduleDTO> schedulesById = new HashMap<>(current.schedulesById);
+        List<CourseScheduleDTO> upserted = new ArrayList<>();
+        Set<Long> removed = new HashSet<>(changed);
+
+        long seatCountVersion = seatCountTable.getVersion();
+        for (CourseScheduleDTO dto : courseScheduleRepository.findScheduleDTOsByIdIn(changed)) {
+            if (dto.getStatus() == ScheduleStatus.OPEN && current.semesterId.equals(dto.getSemesterId())) {
+                schedulesById.put(dto.getId(), dto);
+                upserted.add(dto);
+                removed.remove(dto.getId());
+            }
+        }
+        removed.forEach(schedulesById::remove);
+
+        List<CourseScheduleDTO> schedules = schedulesById.values().stream()
+                .sorted(SORTABLE_PROPERTIES.get("id"))
+                .toList();
+        publishReloaded(seatCountTable.putAll(currentStudentsOf(upserted), seatCountVersion));
+        snapshot = new CatalogSnapshot(versionSequence.incrementAndGet(), current.semesterId, schedules,
+                current.searchIndex.withUpdates(upserted, removed), footprintOf(schedules), current.builtAt);
+        buildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Catalog snapshot v{} updated: {} upserted, {} removed", snapshot.version, upserted.size(), removed.size());
+    }
+
+    private static boolean sameCatalog(List<CourseScheduleDTO> previous, List<CourseScheduleDTO> rebuilt) {
+        if (previous.size() != rebuilt.size()) {
+            return false;
+        }
+        // 已选人数由实时座位表提供，不计入目录内容比较
+        for (int i = 0; i < previous.size(); i++) {
+            CourseScheduleDTO comparable = CatalogSnapshot.copyOf(rebuilt.get(i));
+            comparable.setCurrentStudents(previous.get(i).getCurrentStudents());
+            if (!previous.get(i).equals(comparable)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void publishReloaded(Set<Long> changed) {
+        // 重新加载改变了的人数同样推送给座位变化订阅者
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new SeatCountsReloadedEvent(changed));
+        }
+    }
+
+    /**
+     * 高并发选课模式下数据库中的已选人数落后于内存账本：账本跟踪的课程安排沿用实时表中的值
+     * （账本的每次变化都已增量更新到实时表），实时表中还没有时取账本的值。
+     */
+    private Map<Long, Integer> currentStudentsOf(List<CourseScheduleDTO> schedules) {
+        Map<Long, Integer> currentStudents = new HashMap<>(schedules.size() * 2);
+        for (CourseScheduleDTO dto : schedules) {
+            Integer count = dto.getCurrentStudents();
+            if (seatLedger.isTracked(dto.getId())) {
+                int live = seatCountTable.get(dto.getId());
+                count = live != SeatCountTable.ABSENT ? Integer.valueOf(live) : seatLedger.getCurrentStudents(dto.getId());
+            }
+            currentStudents.put(dto.getId(), count);
+        }
+        return currentStudents;
+    }
+
+    /**
+     * 估算快照占用的内存：每个 DTO 的对象头、装箱字段和时间对象按固定大小计，字符串按每字符 2 字节，
+     * 上课时间按条目数计。只遍历字段，不做序列化。
+     */
+    private static long footprintOf(List<CourseScheduleDTO> schedules) {
+        long bytes = 0;
+        for (CourseScheduleDTO dto : schedules) {
+            bytes += DTO_BASE_BYTES
+                    + 2L * (lengthOf(dto.getClassName()) + lengthOf(dto.getClassroom())
+                    + lengthOf(dto.getCourseCode()) + lengthOf(dto.getCourseName())
+                    + lengthOf(dto.getDescription()) + lengthOf(dto.getDepartment())
+                    + lengthOf(dto.getTeacherName()) + lengthOf(dto.getTeacherTitle())
+                    + lengthOf(dto.getTeacherDepartment()) + lengthOf(dto.getSemesterName()))
+                    + (dto.getScheduleTime() != null ? (long) dto.getScheduleTime().size() * SCHEDULE_ENTRY_BYTES : 0);
+        }
+        return bytes;
+    }
+
+    private static int lengthOf(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static Comparator<CourseScheduleDTO> comparatorFor(Sort sort) {
+        Comparator<CourseScheduleDTO> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<CourseScheduleDTO> propertyComparator = SORTABLE_PROPERTIES.get(order.getProperty());
+            if (propertyComparator == null) {
+                return null;
+            }
+            if (order.isDescending()) {
+                propertyComparator = propertyComparator.reversed();
+            }
+            comparator = comparator == null ? propertyComparator : comparator.thenComparing(propertyComparator);
+        }
+        return comparator;
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<CourseScheduleDTO> nullsLast(
+            Function<CourseScheduleDTO, T> keyExtractor) {
+        return Comparator.comparing(keyExtractor, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+
+    /**
+     * 不可变的课程目录快照，发布后不再修改；返回给调用方的均为副本。
+     */
+    public static final class CatalogSnapshot {
+
+        private final long version;
+        private final Long semesterId;
+        private final List<CourseScheduleDTO> schedules;
+        private final Map<Long, CourseScheduleDTO> schedulesById;
+        private final CourseSearchIndex searchIndex;
+        private final LocalDateTime[] selectionStartTimes;
+        private final LocalDateTime[] selectionEndTimes;
+        private final long footprintBytes;
+        private final LocalDateTime builtAt;
+
+        private CatalogSnapshot(long version, Long semesterId, List<CourseScheduleDTO> schedules,
+                                CourseSearchIndex searchIndex, long footprintBytes, LocalDateTime builtAt) {
+            this.version = version;
+            this.semesterId = semesterId;
+            this.schedules = schedules;
+            this.schedulesById = schedules.stream()
+                    .collect(Collectors.toUnmodifiableMap(CourseScheduleDTO::getId, Function.identity()));
+            this.searchIndex = searchIndex;
+            this.selectionStartTimes = schedules.stream().map(CourseScheduleDTO::getSelectionStartTime)
+                    .filter(Objects::nonNull).sorted().toArray(LocalDateTime[]::new);
+            this.selectionEndTimes = schedules.stream().map(CourseScheduleDTO::getSelectionEndTime)
+                    .filter(Objects::nonNull).sorted().toArray(LocalDateTime[]::new);
+            this.footprintBytes = footprintBytes;
+            this.builtAt = builtAt;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Long getSemesterId() {
+            return semesterId;
+        }
+
+        public boolean contains(Long courseScheduleId) {
+            return schedulesById.containsKey(courseScheduleId);
+        }
+
+        /**
+         * 截至 now 已经发生的选课开始/结束时间点个数；课程因选课时间进入或离开可选列表时该值随之变化。
+         */
+        public int getSelectionWindowEpoch(LocalDateTime now) {
+            return countNotAfter(selectionStartTimes, now) + countBefore(selectionEndTimes, now);
+        }
+
+        private static int countNotAfter(LocalDateTime[] sorted, LocalDateTime now) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid].isAfter(now)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        private static int countBefore(LocalDateTime[] sorted, LocalDateTime now) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid].isBefore(now)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * 在快照内完成选课时间过滤、关键字匹配、排序与分页；排序字段不受支持时返回空，由调用方回退到数据库查询。
+         */
+        public Optional<Page<CourseScheduleDTO>> findAvailable(Pageable pageable, String keyword, LocalDateTime now) {
+            boolean hasKeyword = keyword != null && !keyword.trim().isEmpty();
+            Map<Long, Integer> scores = hasKeyword ? searchIndex.search(keyword) : Map.of();
+
+            Comparator<CourseScheduleDTO> comparator;
+            if (pageable.getSort().getOrderFor(RELEVANCE) != null) {
+                // 按相关度排序，得分相同按课程安排ID排序
+                comparator = Comparator.<CourseScheduleDTO>comparingInt(dto -> -scores.getOrDefault(dto.getId(), 0))
+                        .thenComparing(SORTABLE_PROPERTIES.get("id"));
+            } else {
+                comparator = comparatorFor(pageable.getSort());
+                if (pageable.getSort().isSorted() && comparator == null) {
+                    return Optional.empty();
+                }
+            }
+
+            // 有关键字时只遍历倒排索引命中的课程安排
+            Stream<CourseScheduleDTO> candidates = hasKeyword
+                    ? scores.keySet().stream().map(schedulesById::get)
+                    : schedules.stream();
+            List<CourseScheduleDTO> matched = candidates
+                    .filter(dto -> isInSelectionWindow(dto, now))
+                    .collect(Collectors.toList());
+            matched.sort(comparator != null ? comparator : SORTABLE_PROPERTIES.get("id"));
+
+            int start = (int) Math.min(pageable.getOffset(), matched.size());
+            int end = Math.min(start + pageable.getPageSize(), matched.size());
+            List<CourseScheduleDTO> pageContent = matched.subList(start, end).stream()
+                    .map(CatalogSnapshot::copyOf)
+                    .toList();
+            return Optional.of(new PageImpl<>(pageContent, pageable, matched.size()));
+        }
+
+        private static boolean isInSelectionWindow(CourseScheduleDTO dto, LocalDateTime now) {
+            return dto.getSelectionStartTime() != null && !now.isBefore(dto.getSelectionStartTime())
+                    && dto.getSelectionEndTime() != null && !now.isAfter(dto.getSelectionEndTime());
+        }
+
+        private static CourseScheduleDTO copyOf(CourseScheduleDTO source) {
+            CourseScheduleDTO copy = new CourseScheduleDTO();
+            BeanUtils.copyProperties(source, copy);
+            return copy;
+        }
+    }
+}
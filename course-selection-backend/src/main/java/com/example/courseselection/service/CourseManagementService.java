@@ -1,17 +1,22 @@
 package com.example.courseselection.service;
 
 import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.pagination.KeysetCursor;
 import com.example.courseselection.common.result.ResultCode;
 import com.example.courseselection.dto.request.CourseCreateRequest;
 import com.example.courseselection.dto.request.CourseScheduleCreateRequest;
 import com.example.courseselection.dto.response.CourseScheduleDTO;
+import com.example.courseselection.dto.response.CursorPageDTO;
 import com.example.courseselection.entity.*;
 import com.example.courseselection.entity.enums.CourseStatus;
 import com.example.courseselection.entity.enums.ScheduleStatus;
 import com.example.courseselection.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +32,11 @@ public class CourseManagementService {
     private final CourseScheduleRepository courseScheduleRepository;
     private final TeacherRepository teacherRepository;
     private final SemesterRepository semesterRepository;
+    private final SeatLedger seatLedger;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.course-selection.max-cursor-page-size:100}")
+    private int maxCursorPageSize;
 
     @Transactional
     public Course createCourse(CourseCreateRequest request) {
@@ -93,6 +103,7 @@ public class CourseManagementService {
         schedule.setStatus(ScheduleStatus.PENDING);
 
         CourseSchedule savedSchedule = courseScheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new CatalogChangedEvent(savedSchedule.getId()));
         log.info("Created course schedule for course {} by teacher {}", 
                 course.getCourseCode(), teacher.getUser().getRealName());
         return savedSchedule;
@@ -100,19 +111,29 @@ public class CourseManagementService {
 
     @Transactional(readOnly = true)
     public Page<Course> getAllCourses(Pageable pageable) {
-        return courseRepository.findByStatus(CourseStatus.ACTIVE, pageable);
+        return courseRepository.findByStatus(CourseStatus.ACTIVE, CourseRepository.SORTABLE.resolve(pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<CourseScheduleDTO> getCourseSchedules(Long semesterId, Pageable pageable) {
-        Page<CourseSchedule> schedules;
-        if (semesterId != null) {
-            schedules = courseScheduleRepository.findBySemesterIdAndStatus(semesterId, null, pageable);
-        } else {
-            schedules = courseScheduleRepository.findAll(pageable);
+        return courseScheduleRepository.findScheduleDTOs(semesterId,
+                CourseScheduleRepository.SCHEDULE_DTO_SORTABLE.resolve(pageable));
+    }
+
+    /**
+     * 课程安排的游标分页，按ID正序；游标为上一页最后一条记录的ID。
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CourseScheduleDTO> getCourseSchedulesByCursor(Long semesterId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null && after.getId() == null) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "无效的分页游标");
         }
+        int pageSize = Math.max(1, Math.min(size, maxCursorPageSize));
+        List<CourseScheduleDTO> rows = courseScheduleRepository.findScheduleDTOKeysetPageAfterId(
+                semesterId, after != null ? after.getId() : 0L, PageRequest.of(0, pageSize + 1));
 
-        return schedules.map(this::convertToCourseScheduleDTO);
+        return CursorPageDTO.of(rows, pageSize, schedule -> KeysetCursor.of(schedule.getId()));
     }
 
     @Transactional(readOnly = true)
@@ -132,9 +153,58 @@ public class CourseManagementService {
         schedule.setStatus(status);
         courseScheduleRepository.save(schedule);
 
+        // 同步高并发模式下的内存座位账本（事务提交后生效）
+        if (status == ScheduleStatus.OPEN && Boolean.TRUE.equals(schedule.getSemester().getIsCurrent())) {
+            seatLedger.track(schedule);
+        } else {
+            seatLedger.untrack(scheduleId);
+        }
+
+        eventPublisher.publishEvent(new CatalogChangedEvent(scheduleId));
+
+        // 重新开放后尝试递补候补学生
+        if (status == ScheduleStatus.OPEN) {
+            eventPublisher.publishEvent(new SeatReleasedEvent(scheduleId));
+        }
+
         log.info("Updated course schedule {} status to {}", scheduleId, status);
     }
 
+    @Transactional
+    public void updateCourseScheduleCapacity(Long scheduleId, Integer maxStudents) {
+        CourseSchedule schedule = courseScheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new BusinessException(ResultCode.COURSE_NOT_FOUND, "课程安排不存在"));
+
+        if (maxStudents == null || maxStudents <= 0) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "最大人数必须大于0");
+        }
+
+        // 账本跟踪的课程以内存人数为准，包含尚未写回的选课
+        Integer ledgerStudents = seatLedger.isTracked(scheduleId) ? seatLedger.getCurrentStudents(scheduleId) : null;
+        int currentStudents = ledgerStudents != null ? ledgerStudents : schedule.getCurrentStudents();
+        if (maxStudents < currentStudents) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "最大人数不能小于已选人数");
+        }
+
+        int previousMaxStudents = schedule.getMaxStudents();
+        schedule.setMaxStudents(maxStudents);
+        courseScheduleRepository.save(schedule);
+
+        // 同步高并发模式下的内存座位账本（事务提交后生效）
+        if (schedule.getStatus() == ScheduleStatus.OPEN && Boolean.TRUE.equals(schedule.getSemester().getIsCurrent())) {
+            seatLedger.track(schedule);
+        }
+
+        eventPublisher.publishEvent(new CatalogChangedEvent(scheduleId));
+
+        // 扩容后尝试递补候补学生
+        if (maxStudents > previousMaxStudents) {
+            eventPublisher.publishEvent(new SeatReleasedEvent(scheduleId));
+        }
+
+        log.info("Updated course schedule {} capacity from {} to {}", scheduleId, previousMaxStudents, maxStudents);
+    }
+
     @Transactional
     public void deleteCourse(Long courseId) {
         Course course = courseRepository.findById(courseId)
@@ -157,50 +227,18 @@ public class CourseManagementService {
         CourseSchedule schedule = courseScheduleRepository.findById(scheduleId)
                 .orElseThrow(() -> new BusinessException(ResultCode.COURSE_NOT_FOUND, "课程安排不存在"));
 
-        // 检查是否有学生选课
-        if (schedule.getCurrentStudents() > 0) {
+        // 检查是否有学生选课；账本跟踪的课程以内存人数为准，并包含尚未写回的选课/退课
+        Integer ledgerStudents = seatLedger.isTracked(scheduleId) ? seatLedger.getCurrentStudents(scheduleId) : null;
+        boolean hasStudents = ledgerStudents != null
+                ? ledgerStudents > 0 || seatLedger.hasPendingWrites(scheduleId)
+                : schedule.getCurrentStudents() > 0;
+        if (hasStudents) {
             throw new BusinessException(ResultCode.PARAM_ERROR, "该课程安排已有学生选课，无法删除");
         }
 
         courseScheduleRepository.delete(schedule);
+        seatLedger.untrack(scheduleId);
+        eventPublisher.publishEvent(new CatalogChangedEvent(scheduleId));
         log.info("Deleted course schedule: {}", scheduleId);
     }
-
-    private CourseScheduleDTO convertToCourseScheduleDTO(CourseSchedule schedule) {
-        CourseScheduleDTO dto = new CourseScheduleDTO();
-        dto.setId(schedule.getId());
-        dto.setClassName(schedule.getClassName());
-        dto.setMaxStudents(schedule.getMaxStudents());
-        dto.setCurrentStudents(schedule.getCurrentStudents());
-        dto.setClassroom(schedule.getClassroom());
-        dto.setScheduleTime(schedule.getScheduleTime());
-        dto.setSelectionStartTime(schedule.getSelectionStartTime());
-        dto.setSelectionEndTime(schedule.getSelectionEndTime());
-        dto.setStatus(schedule.getStatus());
-
-        // 课程信息
-        Course course = schedule.getCourse();
-        dto.setCourseId(course.getId());
-        dto.setCourseCode(course.getCourseCode());
-        dto.setCourseName(course.getCourseName());
-        dto.setCourseType(course.getCourseType());
-        dto.setCredits(course.getCredits());
-        dto.setTotalHours(course.getTotalHours());
-        dto.setDescription(course.getDescription());
-        dto.setDepartment(course.getDepartment());
-
-        // 教师信息
-        Teacher teacher = schedule.getTeacher();
-        dto.setTeacherId(teacher.getId());
-        dto.setTeacherName(teacher.getUser().getRealName());
-        dto.setTeacherTitle(teacher.getTitle());
-        dto.setTeacherDepartment(teacher.getDepartment());
-
-        // 学期信息
-        Semester semester = schedule.getSemester();
-        dto.setSemesterId(semester.getId());
-        dto.setSemesterName(semester.getName());
-
-        return dto;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,233 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.dto.response.CourseScheduleDTO;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 课程目录关键字倒排索引：课程代码、课程名称、教师姓名按单字和相邻二字（bigram）建立倒排表，中文无需分词。
+ * 索引发布后不可变，增量更新时只复制受影响的倒排表并生成新索引。
+ */
+public final class CourseSearchIndex {
+
+    private static final int COURSE_CODE = 0;
+    private static final int COURSE_NAME = 1;
+    private static final int TEACHER_NAME = 2;
+    private static final long[] EMPTY_POSTING = new long[0];
+
+    private final Map<String, long[]> postings;
+    private final Map<Long, String[]> documents;
+
+    private CourseSearchIndex(Map<String, long[]> postings, Map<Long, String[]> documents) {
+        this.postings = postings;
+        this.documents = documents;
+    }
+
+    public static CourseSearchIndex build(Collection<CourseScheduleDTO> schedules) {
+        Map<Long, String[]> documents = new HashMap<>(schedules.size() * 2);
+        Map<String, Set<Long>> grams = new HashMap<>();
+        for (CourseScheduleDTO schedule : schedules) {
+            String[] fields = fieldsOf(schedule);
+            documents.put(schedule.getId(), fields);
+            for (String gram : gramsOf(fields)) {
+                grams.computeIfAbsent(gram, key -> new HashSet<>()).add(schedule.getId());
+            }
+        }
+
+        Map<String, long[]> postings = new HashMap<>(grams.size() * 2);
+        grams.forEach((gram, ids) -> postings.put(gram, toSortedArray(ids)));
+        return new CourseSearchIndex(postings, documents);
+    }
+
+    /**
+     * 基于当前索引生成新索引：changed 中的课程安排重新索引，removedIds 中的课程安排移出索引。
+     */
+    public CourseSearchIndex withUpdates(Collection<CourseScheduleDTO> changed, Collection<Long> removedIds) {
+        Map<String, long[]> newPostings = new HashMap<>(postings);
+        Map<Long, String[]> newDocuments = new HashMap<>(documents);
+        Map<String, Set<Long>> touched = new HashMap<>();
+
+        for (Long id : removedIds) {
+            String[] previous = newDocuments.remove(id);
+            if (previous != null) {
+                for (String gram : gramsOf(previous)) {
+                    postingFor(touched, newPostings, gram).remove(id);
+                }
+            }
+        }
+
+        for (CourseScheduleDTO schedule : changed) {
+            String[] previous = newDocuments.put(schedule.getId(), fieldsOf(schedule));
+            if (previous != null) {
+                for (String gram : gramsOf(previous)) {
+                    postingFor(touched, newPostings, gram).remove(schedule.getId());
+                }
+            }
+            for (String gram : gramsOf(newDocuments.get(schedule.getId()))) {
+                postingFor(touched, newPostings, gram).add(schedule.getId());
+            }
+        }
+
+        touched.forEach((gram, ids) -> {
+            if (ids.isEmpty()) {
+                newPostings.remove(gram);
+            } else {
+                newPostings.put(gram, toSortedArray(ids));
+            }
+        });
+        return new CourseSearchIndex(newPostings, newDocuments);
+    }
+
+    /**
+     * 返回匹配关键字的课程安排及其相关度得分；代码/名称完全匹配与前缀匹配排在包含匹配之前。
+     */
+    public Map<Long, Integer> search(String keyword) {
+        String query = normalize(keyword);
+        if (query.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // 按倒排表长度从短到长求交集，候补集合再逐一校验，排除二元组拼接造成的误匹配
+        long[][] lists = gramsOfQuery(query).stream()
+                .map(gram -> postings.getOrDefault(gram, EMPTY_POSTING))
+                .sorted((a, b) -> Integer.compare(a.length, b.length))
+                .toArray(long[][]::new);
+
+        Map<Long, Integer> scores = new HashMap<>();
+        for (long candidate : lists[0]) {
+            if (containsAll(lists, candidate)) {
+                int score = score(documents.get(candidate), query);
+                if (score > 0) {
+                    scores.put(candidate, score);
+                }
+            }
+        }
+        return scores;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private static boolean containsAll(long[][] lists, long candidate) {
+        for (int i = 1; i < lists.length; i++) {
+            if (Arrays.binarySearch(lists[i], candidate) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int score(String[] fields, String query) {
+        String code = fields[COURSE_CODE];
+        String name = fields[COURSE_NAME];
+        String teacher = fields[TEACHER_NAME];
+
+        if (code.equals(query)) {
+            return 100;
+        }
+        if (name.equals(query)) {
+            return 90;
+        }
+        if (code.startsWith(query)) {
+            return 80;
+        }
+        if (name.startsWith(query)) {
+            return 70;
+        }
+        if (teacher.equals(query)) {
+            return 60;
+        }
+        if (teacher.startsWith(query)) {
+            return 50;
+        }
+        if (name.contains(query)) {
+            return 40;
+        }
+        if (code.contains(query)) {
+            return 30;
+        }
+        if (teacher.contains(query)) {
+            return 20;
+        }
+        return 0;
+    }
+
+    private static Set<Long> postingFor(Map<String, Set<Long>> touched, Map<String, long[]> postings, String gram) {
+        return touched.computeIfAbsent(gram, key -> {
+            Set<Long> ids = new HashSet<>();
+            for (long id : postings.getOrDefault(key, EMPTY_POSTING)) {
+                ids.add(id);
+            }
+            return ids;
+        });
+    }
+
+    private static long[] toSortedArray(Set<Long> ids) {
+        long[] array = new long[ids.size()];
+        int i = 0;
+        for (Long id : ids) {
+            array[i++] = id;
+        }
+        Arrays.sort(array);
+        return array;
+    }
+
+    private static String[] fieldsOf(CourseScheduleDTO schedule) {
+        String[] fields = new String[3];
+        fields[COURSE_CODE] = normalize(schedule.getCourseCode());
+        fields[COURSE_NAME] = normalize(schedule.getCourseName());
+        fields[TEACHER_NAME] = normalize(schedule.getTeacherName());
+        return fields;
+    }
+
+    private static Set<String> gramsOf(String[] fields) {
+        Set<String> grams = new HashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i < field.length(); i++) {
+                grams.add(field.substring(i, i + 1));
+                if (i + 1 < field.length()) {
+                    grams.add(field.substring(i, i + 2));
+                }
+            }
+        }
+        return grams;
+    }
+
+    private static Set<String> gramsOfQuery(String query) {
+        // 单字查询使用单字倒排表，其余按相邻二字拆分
+        if (query.length() == 1) {
+            return Set.of(query);
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < query.length(); i++) {
+            grams.add(query.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * 去掉空白并转为小写；规范化结果相同的关键字检索结果相同。
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+}
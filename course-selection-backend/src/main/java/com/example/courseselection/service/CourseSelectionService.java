@@ -1,9 +1,13 @@
 package com.example.courseselection.service;
 
 import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.metrics.SelectionMetrics;
+import com.example.courseselection.common.pagination.KeysetCursor;
 import com.example.courseselection.common.result.ResultCode;
 import com.example.courseselection.dto.response.CourseScheduleDTO;
 import com.example.courseselection.dto.response.CourseSelectionDTO;
+import com.example.courseselection.dto.response.CursorPageDTO;
+import com.example.courseselection.dto.response.SelectionItemResultDTO;
 import com.example.courseselection.entity.*;
 import com.example.courseselection.entity.enums.ScheduleStatus;
 import com.example.courseselection.entity.enums.SelectionStatus;
@@ -11,15 +15,24 @@ import com.example.courseselection.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -32,6 +45,12 @@ public class CourseSelectionService {
     private final StudentRepository studentRepository;
     private final SemesterRepository semesterRepository;
     private final CourseRepository courseRepository;
+    private final SelectionMetrics selectionMetrics;
+    private final SeatLedger seatLedger;
+    private final StudentSemesterSummaryService studentSemesterSummaryService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final SeatCountTable seatCountTable;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.course-selection.default-max-credits:30}")
     private Integer defaultMaxCredits;
@@ -39,57 +58,94 @@ public class CourseSelectionService {
     @Value("${app.course-selection.default-drop-days:14}")
     private Integer defaultDropDays;
 
+    @Value("${app.course-selection.max-cursor-page-size:100}")
+    private int maxCursorPageSize;
+
     @Transactional(readOnly = true)
-    public Page<CourseScheduleDTO> getAvailableCourses(Long studentId, Pageable pageable, String keyword) {
+    public Page<CourseScheduleDTO> getAvailableCourses(Long userId, Pageable pageable, String keyword) {
+        // 获取学生信息
+        Student student = studentRepository.findByUserId(userId)
+                .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND, "学生不存在"));
+
+        // 优先从课程目录快照读取，只为当前学生叠加选课状态
+        LocalDateTime now = LocalDateTime.now();
+        CatalogSnapshotService.CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot().orElse(null);
+        if (snapshot != null) {
+            Page<CourseScheduleDTO> snapshotPage = snapshot.findAvailable(pageable, keyword, now).orElse(null);
+            if (snapshotPage != null) {
+                return overlayStudentState(student, snapshot.getSemesterId(), snapshotPage);
+            }
+        }
+
         // 获取当前学期
         Semester currentSemester = semesterRepository.findCurrentSemester()
                 .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "当前学期未设置"));
 
-        // 获取可选课程
-        LocalDateTime now = LocalDateTime.now();
-        List<CourseSchedule> availableSchedules = courseScheduleRepository
-                .findAvailableCoursesForSelection(currentSemester.getId(), now);
-
-        // 关键字搜索过滤
-        if (keyword != null && !keyword.trim().isEmpty()) {
-            String searchKeyword = keyword.trim().toLowerCase();
-            availableSchedules = availableSchedules.stream()
-                    .filter(schedule -> 
-                        schedule.getCourse().getCourseName().toLowerCase().contains(searchKeyword) ||
-                        schedule.getCourse().getCourseCode().toLowerCase().contains(searchKeyword) ||
-                        (schedule.getTeacher() != null && schedule.getTeacher().getUser() != null && 
-                         schedule.getTeacher().getUser().getRealName().toLowerCase().contains(searchKeyword))
-                    )
-                    .collect(Collectors.toList());
+        // 关键字过滤、排序与分页均在数据库完成，只取当前页；数据库不支持相关度排序，改按ID排序
+        if (pageable.getSort().getOrderFor(CatalogSnapshotService.RELEVANCE) != null) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
         }
+        pageable = CourseScheduleRepository.SCHEDULE_DTO_SORTABLE.resolve(pageable);
+        Page<CourseScheduleDTO> schedulePage = courseScheduleRepository.searchAvailableCoursesForSelection(
+                currentSemester.getId(), now, toLikePattern(keyword), pageable);
+
+        return overlayStudentState(student, currentSemester.getId(), schedulePage);
+    }
+
+    private Page<CourseScheduleDTO> overlayStudentState(Student student, Long semesterId, Page<CourseScheduleDTO> page) {
+        // 只查询当前页课程的选课状态
+        Set<Long> pageScheduleIds = page.getContent().stream()
+                .map(CourseScheduleDTO::getId)
+                .collect(Collectors.toSet());
+        Set<Long> selectedScheduleIds = pageScheduleIds.isEmpty() ? Set.of() : courseSelectionRepository
+                .findByStudentIdAndCourseScheduleIdIn(student.getId(), pageScheduleIds).stream()
+                .filter(selection -> selection.getStatus() == SelectionStatus.SELECTED)
+                .map(selection -> selection.getCourseSchedule().getId())
+                .collect(Collectors.toSet());
+        BigDecimal currentCredits = studentSemesterSummaryService.getTotalCredits(student.getId(), semesterId);
+
+        page.forEach(dto -> {
+            // 已选人数取实时座位表，课程目录快照只提供静态信息
+            int liveCurrentStudents = seatCountTable.get(dto.getId());
+            if (liveCurrentStudents != SeatCountTable.ABSENT) {
+                dto.setCurrentStudents(liveCurrentStudents);
+            }
+
+            // 检查是否已选
+            dto.setIsSelected(selectedScheduleIds.contains(dto.getId()));
+
+            // 检查是否可以选课
+            validateCourseSelection(dto, currentCredits);
+        });
+        return page;
+    }
+
+    /**
+     * 为课程目录响应缓存中的共享课程计算当前学生的状态（实时已选人数、是否已选、能否选课）。
+     * 返回只包含状态与校验所需字段的新 DTO，不修改缓存中的共享对象。
+     */
+    @Transactional(readOnly = true)
+    public List<CourseScheduleDTO> getStudentCourseStates(Long userId, Long semesterId, List<CourseScheduleDTO> schedules) {
+        Student student = studentRepository.findByUserId(userId)
+                .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND, "学生不存在"));
+
+        List<CourseScheduleDTO> states = schedules.stream()
+                .map(CourseSelectionService::stateOf)
+                .toList();
+        overlayStudentState(student, semesterId, new PageImpl<>(states));
+        return states;
+    }
 
-        // 获取学生已选课程
-        List<CourseSelection> selectedCourses = courseSelectionRepository
-                .findByStudentIdAndSemesterIdAndStatus(studentId, currentSemester.getId(), SelectionStatus.SELECTED);
-
-        // 转换为DTO并设置选课状态
-        List<CourseScheduleDTO> courseDTOs = availableSchedules.stream()
-                .map(schedule -> {
-                    CourseScheduleDTO dto = convertToCourseScheduleDTO(schedule);
-                    
-                    // 检查是否已选
-                    boolean isSelected = selectedCourses.stream()
-                            .anyMatch(selection -> selection.getCourseSchedule().getId().equals(schedule.getId()));
-                    dto.setIsSelected(isSelected);
-                    
-                    // 检查是否可以选课
-                    validateCourseSelection(studentId, schedule, selectedCourses, dto);
-                    
-                    return dto;
-                })
-                .collect(Collectors.toList());
-
-        // 分页处理
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), courseDTOs.size());
-        List<CourseScheduleDTO> pageContent = courseDTOs.subList(start, end);
-
-        return new PageImpl<>(pageContent, pageable, courseDTOs.size());
+    private static CourseScheduleDTO stateOf(CourseScheduleDTO schedule) {
+        CourseScheduleDTO state = new CourseScheduleDTO();
+        state.setId(schedule.getId());
+        state.setMaxStudents(schedule.getMaxStudents());
+        state.setCurrentStudents(schedule.getCurrentStudents());
+        state.setCredits(schedule.getCredits());
+        state.setStatus(schedule.getStatus());
+        state.setSelectionStartTime(schedule.getSelectionStartTime());
+        state.setSelectionEndTime(schedule.getSelectionEndTime());
+        return state;
     }
 
     @Transactional
@@ -98,6 +154,25 @@ public class CourseSelectionService {
         Student student = studentRepository.findByUserId(userId)
                 .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND, "学生不存在"));
 
+        doSelectCourse(student, courseScheduleId);
+    }
+
+    @Transactional(noRollbackFor = BusinessException.class)
+    public void selectCourseForWaitlist(Student student, Long courseScheduleId) {
+        // 候补递补时由调用方决定如何处理业务异常，这里不将外层事务标记为回滚
+        doSelectCourse(student, courseScheduleId);
+    }
+
+    private void doSelectCourse(Student student, Long courseScheduleId) {
+        // 高并发模式：由内存账本判定座位，选课记录异步批量写回
+        if (seatLedger.select(student.getUser().getId(), courseScheduleId)) {
+            return;
+        }
+
+        if (seatLedger.isPending(student.getId(), courseScheduleId)) {
+            throw new BusinessException(ResultCode.SELECTION_PENDING);
+        }
+
         // 获取课程安排
         CourseSchedule courseSchedule = courseScheduleRepository.findById(courseScheduleId)
                 .orElseThrow(() -> new BusinessException(ResultCode.COURSE_NOT_FOUND, "课程安排不存在"));
@@ -106,38 +181,144 @@ public class CourseSelectionService {
         validateCourseSelectionForAction(student, courseSchedule);
 
         // 检查是否已选
-        if (courseSelectionRepository.existsByStudentIdAndCourseScheduleIdAndStatus(
-                student.getId(), courseScheduleId, SelectionStatus.SELECTED)) {
+        CourseSelection existing = courseSelectionRepository
+                .findByStudentIdAndCourseScheduleId(student.getId(), courseScheduleId)
+                .orElse(null);
+        if (existing != null && existing.getStatus() == SelectionStatus.SELECTED) {
             throw new BusinessException(ResultCode.ALREADY_SELECTED);
         }
 
-        // 检查课程人数限制
-        Long currentCount = courseSelectionRepository.countSelectedStudentsByCourseSchedule(courseScheduleId);
-        if (currentCount >= courseSchedule.getMaxStudents()) {
+        // 条件更新占座：仅当 current_students < max_students 时成功，避免并发超卖
+        if (courseScheduleRepository.reserveSeat(courseScheduleId) == 0) {
+            selectionMetrics.recordRejected(ResultCode.COURSE_FULL);
             throw new BusinessException(ResultCode.COURSE_FULL);
         }
 
-        // 创建选课记录
-        CourseSelection courseSelection = new CourseSelection();
+        // 创建选课记录（与占座在同一事务中，插入失败时座位随事务回滚）；退课后重选时复用原记录
+        CourseSelection courseSelection = existing != null ? existing : new CourseSelection();
         courseSelection.setStudent(student);
         courseSelection.setCourseSchedule(courseSchedule);
         courseSelection.setSelectionTime(LocalDateTime.now());
         courseSelection.setStatus(SelectionStatus.SELECTED);
 
         courseSelectionRepository.save(courseSelection);
-
-        // 更新课程当前人数
-        courseSchedule.setCurrentStudents(currentCount.intValue() + 1);
-        courseScheduleRepository.save(courseSchedule);
+        studentSemesterSummaryService.recordSelected(student.getId(), courseSchedule.getSemester().getId(),
+                courseSchedule.getCourse().getCredits(), 1);
+        seatLedger.evictStudent(student.getUser().getId());
+        selectionMetrics.recordSelected();
+        eventPublisher.publishEvent(new SeatCountChangedEvent(courseScheduleId, 1));
 
         log.info("Student {} selected course schedule {}", student.getId(), courseScheduleId);
     }
 
+    @Transactional
+    public List<SelectionItemResultDTO> selectCourses(Long userId, List<Long> courseScheduleIds) {
+        // 学生、学期与已选学分整单只查询一次
+        Student student = studentRepository.findByUserId(userId)
+                .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND, "学生不存在"));
+
+        Semester currentSemester = semesterRepository.findCurrentSemester()
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "当前学期未设置"));
+
+        BigDecimal currentCredits = getCurrentCredits(student, currentSemester);
+
+        Set<Long> distinctIds = new LinkedHashSet<>(courseScheduleIds);
+        Map<Long, CourseSchedule> schedules = courseScheduleRepository.findAllWithCourseByIdIn(distinctIds).stream()
+                .collect(Collectors.toMap(CourseSchedule::getId, Function.identity()));
+        Map<Long, CourseSelection> existingSelections = courseSelectionRepository
+                .findByStudentIdAndCourseScheduleIdIn(student.getId(), distinctIds).stream()
+                .collect(Collectors.toMap(selection -> selection.getCourseSchedule().getId(), Function.identity()));
+
+        List<SelectionItemResultDTO> results = new ArrayList<>(courseScheduleIds.size());
+        List<CourseSelection> newSelections = new ArrayList<>();
+        Set<Long> processedIds = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Long courseScheduleId : courseScheduleIds) {
+            try {
+                if (!processedIds.add(courseScheduleId)) {
+                    throw new BusinessException(ResultCode.ALREADY_SELECTED, "选课清单中存在重复课程");
+                }
+
+                CourseSchedule courseSchedule = schedules.get(courseScheduleId);
+                if (courseSchedule == null) {
+                    throw new BusinessException(ResultCode.COURSE_NOT_FOUND, "课程安排不存在");
+                }
+                if (seatLedger.select(userId, courseScheduleId)) {
+                    currentCredits = currentCredits.add(courseSchedule.getCourse().getCredits());
+                    results.add(SelectionItemResultDTO.success(courseScheduleId));
+                    continue;
+                }
+                if (seatLedger.isPending(student.getId(), courseScheduleId)) {
+                    throw new BusinessException(ResultCode.SELECTION_PENDING);
+                }
+
+                validateSelectionWindow(courseSchedule);
+
+                CourseSelection existing = existingSelections.get(courseScheduleId);
+                if (existing != null && existing.getStatus() == SelectionStatus.SELECTED) {
+                    throw new BusinessException(ResultCode.ALREADY_SELECTED);
+                }
+
+                // 学分按清单顺序累加校验
+                BigDecimal newTotalCredits = validateCredits(student, currentCredits, courseSchedule);
+
+                if (courseScheduleRepository.reserveSeat(courseScheduleId) == 0) {
+                    selectionMetrics.recordRejected(ResultCode.COURSE_FULL);
+                    throw new BusinessException(ResultCode.COURSE_FULL);
+                }
+
+                // 退课后重选时复用原记录，避免触发唯一约束
+                CourseSelection courseSelection = existing != null ? existing : new CourseSelection();
+                courseSelection.setStudent(student);
+                courseSelection.setCourseSchedule(courseSchedule);
+                courseSelection.setSelectionTime(now);
+                courseSelection.setStatus(SelectionStatus.SELECTED);
+                newSelections.add(courseSelection);
+                selectionMetrics.recordSelected();
+                eventPublisher.publishEvent(new SeatCountChangedEvent(courseScheduleId, 1));
+
+                currentCredits = newTotalCredits;
+                results.add(SelectionItemResultDTO.success(courseScheduleId));
+            } catch (BusinessException e) {
+                results.add(SelectionItemResultDTO.failure(courseScheduleId, e.getCode(), e.getMessage()));
+            }
+        }
+
+        courseSelectionRepository.saveAll(newSelections);
+        if (!newSelections.isEmpty()) {
+            seatLedger.evictStudent(userId);
+        }
+
+        // 学分汇总按学期合并为一次更新
+        newSelections.stream()
+                .collect(Collectors.groupingBy(selection -> selection.getCourseSchedule().getSemester().getId()))
+                .forEach((semesterId, selections) -> studentSemesterSummaryService.recordSelected(
+                        student.getId(), semesterId,
+                        selections.stream()
+                                .map(selection -> selection.getCourseSchedule().getCourse().getCredits())
+                                .reduce(BigDecimal.ZERO, BigDecimal::add),
+                        selections.size()));
+
+        log.info("Student {} checked out {} course schedules, {} selected",
+                student.getId(), courseScheduleIds.size(), results.stream().filter(SelectionItemResultDTO::getSuccess).count());
+        return results;
+    }
+
     @Transactional
     public void dropCourse(Long userId, Long courseScheduleId) {
+        // 高并发模式：由内存账本判定，退课记录异步写回，写回成功后释放座位
+        if (seatLedger.drop(userId, courseScheduleId)) {
+            return;
+        }
+
         // 获取学生信息
         Student student = studentRepository.findByUserId(userId)
                 .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND, "学生不存在"));
+
+        if (seatLedger.isPending(student.getId(), courseScheduleId)) {
+            throw new BusinessException(ResultCode.SELECTION_PENDING);
+        }
         
         // 获取选课记录
         CourseSelection courseSelection = courseSelectionRepository
@@ -161,12 +342,15 @@ public class CourseSelectionService {
         // 更新选课状态
         courseSelection.setStatus(SelectionStatus.DROPPED);
         courseSelectionRepository.save(courseSelection);
+        studentSemesterSummaryService.recordDropped(student.getId(), courseSchedule.getSemester().getId(),
+                courseSchedule.getCourse().getCredits(), 1);
+        seatLedger.evictStudent(userId);
 
-        // 更新课程当前人数
-        if (courseSchedule.getCurrentStudents() > 0) {
-            courseSchedule.setCurrentStudents(courseSchedule.getCurrentStudents() - 1);
-            courseScheduleRepository.save(courseSchedule);
-        }
+        // 条件更新释放座位
+        courseScheduleRepository.releaseSeat(courseScheduleId);
+        selectionMetrics.recordDropped();
+        eventPublisher.publishEvent(new SeatCountChangedEvent(courseScheduleId, -1));
+        eventPublisher.publishEvent(new SeatReleasedEvent(courseScheduleId));
 
         log.info("Student {} dropped course schedule {}", student.getId(), courseScheduleId);
     }
@@ -177,10 +361,9 @@ public class CourseSelectionService {
         Student student = studentRepository.findByUserId(userId)
                 .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND, "学生不存在"));
         
-        Page<CourseSelection> selections = courseSelectionRepository
-                .findByStudentIdAndStatus(student.getId(), SelectionStatus.SELECTED, pageable);
-
-        return selections.map(this::convertToCourseSelectionDTO);
+        return courseSelectionRepository
+                .findSelectionDTOsByStudentIdAndStatus(student.getId(), SelectionStatus.SELECTED,
+                        CourseSelectionRepository.SELECTION_DTO_SORTABLE.resolve(pageable));
     }
 
     @Transactional(readOnly = true)
@@ -193,73 +376,120 @@ public class CourseSelectionService {
             throw new BusinessException(ResultCode.PERMISSION_DENIED, "无权查看该课程的学生名单");
         }
 
-        List<CourseSelection> selections = courseSelectionRepository.findByCourseScheduleId(courseScheduleId);
-        List<CourseSelectionDTO> dtos = selections.stream()
-                .map(this::convertToCourseSelectionDTO)
-                .collect(Collectors.toList());
+        // 学生与课程信息随分页查询按列投影一并取出
+        return courseSelectionRepository.findSelectionDTOsByCourseScheduleId(courseScheduleId,
+                CourseSelectionRepository.SELECTION_DTO_SORTABLE.resolve(pageable));
+    }
+
+    /**
+     * 已选课程的游标分页，按选课时间倒序；游标为上一页最后一条记录的 (选课时间, ID)。
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CourseSelectionDTO> getMySelectedCoursesByCursor(Long userId, String cursor, int size) {
+        Student student = studentRepository.findByUserId(userId)
+                .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND, "学生不存在"));
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = clampCursorPageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<CourseSelectionDTO> rows = after == null
+                ? courseSelectionRepository.findFirstKeysetPageByStudent(student.getId(), SelectionStatus.SELECTED, limit)
+                : courseSelectionRepository.findKeysetPageByStudentBefore(
+                        student.getId(), SelectionStatus.SELECTED, requireTime(after), after.getId(), limit);
+
+        return CursorPageDTO.of(rows, pageSize,
+                selection -> KeysetCursor.of(selection.getSelectionTime(), selection.getId()));
+    }
+
+    /**
+     * 课程学生名单的游标分页，按选课时间正序；深翻页与第一页代价相同。
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CourseSelectionDTO> getStudentsByCourseScheduleByCursor(Long teacherId, Long courseScheduleId,
+                                                                                String cursor, int size) {
+        CourseSchedule courseSchedule = courseScheduleRepository.findById(courseScheduleId)
+                .orElseThrow(() -> new BusinessException(ResultCode.COURSE_NOT_FOUND, "课程安排不存在"));
+
+        if (!courseSchedule.getTeacher().getId().equals(teacherId)) {
+            throw new BusinessException(ResultCode.PERMISSION_DENIED, "无权查看该课程的学生名单");
+        }
 
-        // 分页处理
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), dtos.size());
-        List<CourseSelectionDTO> pageContent = dtos.subList(start, end);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = clampCursorPageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<CourseSelectionDTO> rows = after == null
+                ? courseSelectionRepository.findFirstKeysetPageByCourseSchedule(courseScheduleId, limit)
+                : courseSelectionRepository.findKeysetPageByCourseScheduleAfter(
+                        courseScheduleId, requireTime(after), after.getId(), limit);
 
-        return new PageImpl<>(pageContent, pageable, dtos.size());
+        return CursorPageDTO.of(rows, pageSize,
+                selection -> KeysetCursor.of(selection.getSelectionTime(), selection.getId()));
     }
 
-    private void validateCourseSelection(Long studentId, CourseSchedule schedule, 
-                                       List<CourseSelection> selectedCourses, CourseScheduleDTO dto) {
+    private int clampCursorPageSize(int size) {
+        return Math.max(1, Math.min(size, maxCursorPageSize));
+    }
+
+    private static LocalDateTime requireTime(KeysetCursor cursor) {
+        if (cursor.getTime() == null || cursor.getId() == null) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "无效的分页游标");
+        }
+        return cursor.getTime();
+    }
+
+    private void validateCourseSelection(CourseScheduleDTO dto, BigDecimal currentCredits) {
         dto.setCanSelect(true);
         dto.setSelectionMessage("");
 
         // 检查选课时间
         LocalDateTime now = LocalDateTime.now();
-        if (schedule.getSelectionStartTime() != null && now.isBefore(schedule.getSelectionStartTime())) {
+        if (dto.getSelectionStartTime() != null && now.isBefore(dto.getSelectionStartTime())) {
             dto.setCanSelect(false);
             dto.setSelectionMessage("选课尚未开始");
             return;
         }
 
-        if (schedule.getSelectionEndTime() != null && now.isAfter(schedule.getSelectionEndTime())) {
+        if (dto.getSelectionEndTime() != null && now.isAfter(dto.getSelectionEndTime())) {
             dto.setCanSelect(false);
             dto.setSelectionMessage("选课已结束");
             return;
         }
 
         // 检查课程状态
-        if (schedule.getStatus() != ScheduleStatus.OPEN) {
+        if (dto.getStatus() != ScheduleStatus.OPEN) {
             dto.setCanSelect(false);
             dto.setSelectionMessage("课程未开放选课");
             return;
         }
 
         // 检查人数限制
-        if (schedule.getCurrentStudents() >= schedule.getMaxStudents()) {
+        if (dto.getCurrentStudents() >= dto.getMaxStudents()) {
             dto.setCanSelect(false);
             dto.setSelectionMessage("课程人数已满");
             return;
         }
 
         // 检查学分限制
-        BigDecimal currentCredits = selectedCourses.stream()
-                .map(selection -> selection.getCourseSchedule().getCourse().getCredits())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal newTotalCredits = currentCredits.add(schedule.getCourse().getCredits());
+        BigDecimal newTotalCredits = currentCredits.add(dto.getCredits());
         if (newTotalCredits.compareTo(BigDecimal.valueOf(defaultMaxCredits)) > 0) {
             dto.setCanSelect(false);
             dto.setSelectionMessage("超出最大学分限制");
-            return;
         }
 
-        // 检查前置课程
-        if (schedule.getCourse().getPrerequisiteCourses() != null && 
-            !schedule.getCourse().getPrerequisiteCourses().isEmpty()) {
-            // 这里可以添加前置课程检查逻辑
-            // 暂时简化处理
-        }
+        // 前置课程检查暂未实现
     }
 
     private void validateCourseSelectionForAction(Student student, CourseSchedule courseSchedule) {
+        validateSelectionWindow(courseSchedule);
+
+        // 检查学分限制
+        Semester currentSemester = semesterRepository.findCurrentSemester()
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "当前学期未设置"));
+
+        validateCredits(student, getCurrentCredits(student, currentSemester), courseSchedule);
+    }
+
+    private void validateSelectionWindow(CourseSchedule courseSchedule) {
         LocalDateTime now = LocalDateTime.now();
 
         // 检查选课时间
@@ -275,109 +505,38 @@ public class CourseSelectionService {
         if (courseSchedule.getStatus() != ScheduleStatus.OPEN) {
             throw new BusinessException(ResultCode.COURSE_NOT_OPEN);
         }
+    }
 
-        // 检查学分限制
-        Semester currentSemester = semesterRepository.findCurrentSemester()
-                .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "当前学期未设置"));
+    private BigDecimal getCurrentCredits(Student student, Semester currentSemester) {
+        // 已选学分取自学期汇总表，不再对选课记录做 SUM 聚合
+        BigDecimal currentCredits = studentSemesterSummaryService.getTotalCredits(student.getId(), currentSemester.getId());
 
-        BigDecimal currentCredits = courseSelectionRepository
-                .getTotalCreditsByStudentAndSemester(student.getId(), currentSemester.getId());
-        
-        if (currentCredits == null) {
-            currentCredits = BigDecimal.ZERO;
+        // 计入尚未写回数据库的选课/退课
+        if (seatLedger.isEnabled()) {
+            currentCredits = currentCredits.add(seatLedger.getPendingCredits(student.getId()));
         }
+        return currentCredits;
+    }
 
+    private BigDecimal validateCredits(Student student, BigDecimal currentCredits, CourseSchedule courseSchedule) {
         BigDecimal newTotalCredits = currentCredits.add(courseSchedule.getCourse().getCredits());
         Integer maxCredits = student.getMaxCredits() != null ? student.getMaxCredits() : defaultMaxCredits;
 
         if (newTotalCredits.compareTo(BigDecimal.valueOf(maxCredits)) > 0) {
             throw new BusinessException(ResultCode.CREDITS_EXCEEDED);
         }
+        return newTotalCredits;
     }
 
-    private CourseScheduleDTO convertToCourseScheduleDTO(CourseSchedule schedule) {
-        CourseScheduleDTO dto = new CourseScheduleDTO();
-        dto.setId(schedule.getId());
-        dto.setClassName(schedule.getClassName());
-        dto.setMaxStudents(schedule.getMaxStudents());
-        dto.setCurrentStudents(schedule.getCurrentStudents());
-        dto.setClassroom(schedule.getClassroom());
-        dto.setScheduleTime(schedule.getScheduleTime());
-        dto.setSelectionStartTime(schedule.getSelectionStartTime());
-        dto.setSelectionEndTime(schedule.getSelectionEndTime());
-        dto.setStatus(schedule.getStatus());
-
-        // 课程信息
-        Course course = schedule.getCourse();
-        dto.setCourseId(course.getId());
-        dto.setCourseCode(course.getCourseCode());
-        dto.setCourseName(course.getCourseName());
-        dto.setCourseType(course.getCourseType());
-        dto.setCredits(course.getCredits());
-        dto.setTotalHours(course.getTotalHours());
-        dto.setDescription(course.getDescription());
-        dto.setDepartment(course.getDepartment());
-
-        // 教师信息
-        Teacher teacher = schedule.getTeacher();
-        dto.setTeacherId(teacher.getId());
-        dto.setTeacherName(teacher.getUser().getRealName());
-        dto.setTeacherTitle(teacher.getTitle());
-        dto.setTeacherDepartment(teacher.getDepartment());
-
-        // 学期信息
-        Semester semester = schedule.getSemester();
-        dto.setSemesterId(semester.getId());
-        dto.setSemesterName(semester.getName());
-
-        return dto;
-    }
-
-    private CourseSelectionDTO convertToCourseSelectionDTO(CourseSelection selection) {
-        CourseSelectionDTO dto = new CourseSelectionDTO();
-        dto.setId(selection.getId());
-        dto.setSelectionTime(selection.getSelectionTime());
-        dto.setStatus(selection.getStatus());
-        dto.setGrade(selection.getGrade());
-        dto.setGradePoint(selection.getGradePoint());
-        dto.setIsPassed(selection.getIsPassed());
-
-        // 课程安排信息
-        CourseSchedule schedule = selection.getCourseSchedule();
-        dto.setCourseScheduleId(schedule.getId());
-        dto.setClassName(schedule.getClassName());
-        dto.setClassroom(schedule.getClassroom());
-        dto.setScheduleTime(schedule.getScheduleTime());
-
-        // 课程信息
-        Course course = schedule.getCourse();
-        dto.setCourseId(course.getId());
-        dto.setCourseCode(course.getCourseCode());
-        dto.setCourseName(course.getCourseName());
-        dto.setCourseType(course.getCourseType());
-        dto.setCredits(course.getCredits());
-        dto.setTotalHours(course.getTotalHours());
-        dto.setDescription(course.getDescription());
-
-        // 教师信息
-        Teacher teacher = schedule.getTeacher();
-        dto.setTeacherId(teacher.getId());
-        dto.setTeacherName(teacher.getUser().getRealName());
-        dto.setTeacherTitle(teacher.getTitle());
-
-        // 学期信息
-        Semester semester = schedule.getSemester();
-        dto.setSemesterId(semester.getId());
-        dto.setSemesterName(semester.getName());
-
-        // 学生信息
-        Student student = selection.getStudent();
-        dto.setStudentId(student.getId());
-        dto.setStudentNumber(student.getStudentNumber());
-        dto.setStudentName(student.getUser().getRealName());
-        dto.setStudentMajor(student.getMajor());
-        dto.setStudentClass(student.getClassName());
-
-        return dto;
+    private String toLikePattern(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return null;
+        }
+        // 转义 LIKE 通配符，保持与原先 contains 匹配一致
+        String escaped = keyword.trim().toLowerCase()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escaped + "%";
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.example.courseselection.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class PendingSeatWrite {
+
+    public enum Type {
+        SELECT,
+        DROP
+    }
+
+    private final Type type;
+    private final Long studentId;
+    private final Long courseScheduleId;
+    private final Long semesterId;
+    private final BigDecimal credits;
+    private final LocalDateTime time;
+
+    public int getSeatDelta() {
+        return type == Type.SELECT ? 1 : -1;
+    }
+
+    public String getKey() {
+        return key(studentId, courseScheduleId);
+    }
+
+    public static String key(Long studentId, Long courseScheduleId) {
+        return studentId + ":" + courseScheduleId;
+    }
+}
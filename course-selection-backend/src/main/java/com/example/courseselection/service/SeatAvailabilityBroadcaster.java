@@ -0,0 +1,380 @@
+package com.example.courseselection.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 座位变化推送（SSE）：选课/退课提交后记录变化的课程安排，按固定间隔合并为一批，统一序列化后分发给所有连接。
+ * 连接由 Servlet 异步请求承载，不占用线程；发送由少量线程完成，每个连接同一时间最多一个发送任务，
+ * 慢连接的待发送内容按课程安排合并只保留最新人数，超过上限时改为通知客户端重新拉取。
+ * 单次写入超过 write-timeout-ms 的连接被断开，并临时补充一个发送线程，卡住的线程由套接字写超时释放后回收。
+ */
+@Slf4j
+@Component
+public class SeatAvailabilityBroadcaster {
+
+    private static final String SEATS_EVENT = "seats";
+    private static final String RESYNC_EVENT = "resync";
+    private static final String UNAVAILABLE_EVENT = "unavailable";
+
+    private final SeatCountTable seatCountTable;
+    private final ObjectMapper objectMapper;
+    private final Counter droppedCounter;
+    private final Counter stalledCounter;
+
+    @Value("${app.course-selection.stream.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.course-selection.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.course-selection.stream.max-connections:25000}")
+    private int maxConnections;
+
+    @Value("${app.course-selection.stream.max-pending:2000}")
+    private int maxPending;
+
+    @Value("${app.course-selection.stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${app.course-selection.stream.sender-queue-capacity:50000}")
+    private int senderQueueCapacity;
+
+    @Value("${app.course-selection.stream.sender-max-threads:32}")
+    private int senderMaxThreads;
+
+    @Value("${app.course-selection.stream.write-timeout-ms:2000}")
+    private long writeTimeoutMs;
+
+    private final Set<Long> changedSchedules = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger stalledWrites = new AtomicInteger();
+    private volatile boolean resyncRequested;
+    private ThreadPoolExecutor sender;
+
+    public SeatAvailabilityBroadcaster(SeatCountTable seatCountTable,
+                                       ObjectMapper objectMapper,
+                                       MeterRegistry meterRegistry) {
+        this.seatCountTable = seatCountTable;
+        this.objectMapper = objectMapper;
+        this.droppedCounter = Counter.builder("course.selection.stream.coalesced")
+                .description("慢连接被合并丢弃的中间座位变化次数")
+                .register(meterRegistry);
+        this.stalledCounter = Counter.builder("course.selection.stream.write-timeouts")
+                .description("单次写入超时被断开的连接数")
+                .register(meterRegistry);
+        Gauge.builder("course.selection.stream.connections", connectionCount, AtomicInteger::get)
+                .description("当前座位推送连接数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        sender = new ThreadPoolExecutor(senderThreads, Math.max(senderThreads, senderMaxThreads), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(senderQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "seat-stream-sender-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        sender.shutdown();
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        if (!enabled || connectionCount.incrementAndGet() > maxConnections) {
+            if (enabled) {
+                connectionCount.decrementAndGet();
+            }
+            // 通知客户端稍后重连，而不是返回无法按 text/event-stream 输出的错误响应
+            try {
+                emitter.send(SseEmitter.event().name(UNAVAILABLE_EVENT).data("{}", MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return emitter;
+        }
+
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscribers.add(subscriber);
+
+        // 首个事件告知当前序号，客户端据此判断是否需要先刷新课程列表
+        subscriber.enqueue(SseEmitter.event().name("ready").data("{\"seq\":" + sequence.get() + "}", MediaType.APPLICATION_JSON));
+        return emitter;
+    }
+
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatCountChanged(SeatCountChangedEvent event) {
+        if (enabled && !subscribers.isEmpty()) {
+            changedSchedules.add(event.getCourseScheduleId());
+        }
+    }
+
+    @EventListener
+    public void onSeatCountsReloaded(SeatCountsReloadedEvent event) {
+        if (!enabled || subscribers.isEmpty()) {
+            return;
+        }
+        if (event.getCourseScheduleIds().size() > maxPending) {
+            // 变化过多时不逐条推送，通知客户端重新拉取
+            resyncRequested = true;
+        } else {
+            changedSchedules.addAll(event.getCourseScheduleIds());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.stream.flush-interval-ms:250}")
+    public void flush() {
+        if (resyncRequested) {
+            resyncRequested = false;
+            changedSchedules.clear();
+            long seq = sequence.incrementAndGet();
+            for (Subscriber subscriber : subscribers) {
+                subscriber.resync(seq);
+            }
+            return;
+        }
+        if (changedSchedules.isEmpty()) {
+            return;
+        }
+
+        // 同一周期内同一课程的多次变化只推送最新人数
+        Map<Long, Integer> batch = new LinkedHashMap<>();
+        for (Long courseScheduleId : changedSchedules) {
+            changedSchedules.remove(courseScheduleId);
+            int currentStudents = seatCountTable.get(courseScheduleId);
+            if (currentStudents != SeatCountTable.ABSENT) {
+                batch.put(courseScheduleId, currentStudents);
+            }
+        }
+        if (batch.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+
+        long seq = sequence.incrementAndGet();
+        String sharedPayload = toPayload(seq, batch);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(seq, batch, sharedPayload);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.stream.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        // 空闲连接定期发送注释行，及时发现已断开的客户端并防止代理超时断开
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(SseEmitter.event().comment("ping"));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.stream.write-check-interval-ms:500}")
+    public void expireStalledWrites() {
+        long deadline = System.currentTimeMillis() - writeTimeoutMs;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.expireIfStalled(deadline);
+        }
+    }
+
+    private void resizeSender(int stalled) {
+        synchronized (sender) {
+            sender.setCorePoolSize(Math.min(senderThreads + stalled, sender.getMaximumPoolSize()));
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            connectionCount.decrementAndGet();
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder resyncEvent(long seq) {
+        return SseEmitter.event().name(RESYNC_EVENT).data("{\"seq\":" + seq + "}", MediaType.APPLICATION_JSON);
+    }
+
+    private String toPayload(long seq, Map<Long, Integer> seats) {
+        try {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("seq", seq);
+            payload.put("seats", seats);
+            return objectMapper.writeValueAsString(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize seat availability payload", e);
+        }
+    }
+
+    private final class Subscriber {
+
+        // 写入开始时间：0 为空闲，STALLED 为已判定超时
+        private static final long STALLED = -1L;
+
+        private final SseEmitter emitter;
+        private final AtomicLong sendStartedAt = new AtomicLong();
+        private final Map<Long, Integer> pending = new HashMap<>();
+        private long pendingSeq;
+        private SseEmitter.SseEventBuilder pendingControl;
+        private boolean sending;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(long seq, Map<Long, Integer> batch, String sharedPayload) {
+            SseEmitter.SseEventBuilder event;
+            synchronized (this) {
+                if (sending || !pending.isEmpty()) {
+                    // 上一次发送尚未完成：合并到待发送内容，中间值被覆盖
+                    int before = pending.size();
+                    pending.putAll(batch);
+                    droppedCounter.increment(before + batch.size() - pending.size());
+                    pendingSeq = seq;
+                    if (pending.size() > maxPending) {
+                        pending.clear();
+                        pendingControl = resyncEvent(seq);
+                    }
+                    if (sending) {
+                        return;
+                    }
+                    event = takePending();
+                } else {
+                    event = SseEmitter.event().name(SEATS_EVENT).id(Long.toString(seq))
+                            .data(sharedPayload, MediaType.APPLICATION_JSON);
+                }
+                sending = true;
+            }
+            dispatch(event);
+        }
+
+        private void resync(long seq) {
+            SseEmitter.SseEventBuilder event = resyncEvent(seq);
+            synchronized (this) {
+                // 重新拉取后之前累积的座位变化不再需要
+                pending.clear();
+                if (sending) {
+                    pendingControl = event;
+                    return;
+                }
+                sending = true;
+            }
+            dispatch(event);
+        }
+
+        private void expireIfStalled(long deadline) {
+            long startedAt = sendStartedAt.get();
+            if (startedAt > 0 && startedAt < deadline && sendStartedAt.compareAndSet(startedAt, STALLED)) {
+                // 不在此处关闭连接：关闭要等待卡住的写入，交由发送线程返回后处理
+                stalledCounter.increment();
+                remove(this);
+                resizeSender(stalledWrites.incrementAndGet());
+                log.debug("Seat stream write exceeded {} ms, dropping subscriber", writeTimeoutMs);
+            }
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder control) {
+            synchronized (this) {
+                if (sending) {
+                    pendingControl = pendingControl != null ? pendingControl : control;
+                    return;
+                }
+                sending = true;
+            }
+            dispatch(control);
+        }
+
+        private SseEmitter.SseEventBuilder takePending() {
+            SseEmitter.SseEventBuilder event;
+            if (pendingControl != null) {
+                event = pendingControl;
+                pendingControl = null;
+            } else if (!pending.isEmpty()) {
+                event = SseEmitter.event().name(SEATS_EVENT).id(Long.toString(pendingSeq))
+                        .data(toPayload(pendingSeq, new LinkedHashMap<>(pending)), MediaType.APPLICATION_JSON);
+                pending.clear();
+            } else {
+                event = null;
+            }
+            return event;
+        }
+
+        private void dispatch(SseEmitter.SseEventBuilder event) {
+            try {
+                sender.execute(() -> send(event));
+            } catch (RejectedExecutionException e) {
+                // 发送队列已满，断开该连接，由客户端重连后重新拉取
+                log.warn("Seat stream sender saturated, closing a subscriber");
+                remove(this);
+                emitter.complete();
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            sendStartedAt.set(System.currentTimeMillis());
+            boolean stalled;
+            try {
+                emitter.send(event);
+            } catch (Exception e) {
+                remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                stalled = sendStartedAt.getAndSet(0) == STALLED;
+                if (stalled) {
+                    resizeSender(stalledWrites.decrementAndGet());
+                }
+            }
+            if (stalled) {
+                emitter.complete();
+                return;
+            }
+
+            SseEmitter.SseEventBuilder next;
+            synchronized (this) {
+                next = takePending();
+                if (next == null) {
+                    sending = false;
+                    return;
+                }
+            }
+            dispatch(next);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.courseselection.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SeatCountChangedEvent {
+
+    private final Long courseScheduleId;
+    private final int delta;
+}
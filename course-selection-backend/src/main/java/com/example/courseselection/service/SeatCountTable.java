@@ -0,0 +1,179 @@
+package com.example.courseselection.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 课程目录的实时已选人数表：课程安排ID到已选人数的开放寻址表（long → int），不装箱。
+ * 由课程目录快照重建时整体加载，选课/退课事务提交后增量更新，响应组装时覆盖快照中的已选人数。
+ * 重建读取数据库期间被增量更新过的课程安排保留实时值，数据库读到的旧值不会覆盖已提交的变化。
+ */
+@Component
+public class SeatCountTable {
+
+    public static final int ABSENT = -1;
+
+    private static final long EMPTY_KEY = 0L;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Table table = new Table(0);
+
+    public int get(Long courseScheduleId) {
+        return table.get(courseScheduleId);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * 整体替换为 currentStudents 中的课程安排；readVersion 为读取这些人数之前的 {@link #getVersion()}，
+     * 此后被增量更新过的课程安排沿用当前值。返回新增或人数发生变化的课程安排。
+     */
+    public synchronized Set<Long> reset(Map<Long, Integer> currentStudents, long readVersion) {
+        Table current = table;
+        Table newTable = new Table(currentStudents.size());
+        currentStudents.forEach((key, value) -> newTable.put(key, value, current, readVersion));
+        return replace(current, newTable);
+    }
+
+    /**
+     * 加入或更新 currentStudents 中的课程安排，readVersion 的含义同 {@link #reset(Map, long)}。
+     */
+    public synchronized Set<Long> putAll(Map<Long, Integer> currentStudents, long readVersion) {
+        Table current = table;
+        Table newTable = new Table(current.size + currentStudents.size());
+        current.copyTo(newTable);
+        currentStudents.forEach((key, value) -> newTable.put(key, value, current, readVersion));
+        return replace(current, newTable);
+    }
+
+    private Set<Long> replace(Table current, Table newTable) {
+        Set<Long> changed = newTable.changedSince(current);
+        if (changed.isEmpty() && newTable.size == current.size) {
+            return changed;
+        }
+        table = newTable;
+        version.incrementAndGet();
+        return changed;
+    }
+
+    public synchronized void adjust(Long courseScheduleId, int delta) {
+        if (table.adjust(courseScheduleId, delta, version.get() + 1)) {
+            version.incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatCountChanged(SeatCountChangedEvent event) {
+        adjust(event.getCourseScheduleId(), event.getDelta());
+    }
+
+    private static final class Table {
+
+        private final long[] keys;
+        private final AtomicIntegerArray counts;
+        // 各课程安排最近一次增量更新后的表版本号
+        private final long[] adjustedAt;
+        private final int mask;
+        private int size;
+
+        private Table(int expectedSize) {
+            // 负载因子不超过 0.5，容量取 2 的幂
+            int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+            this.keys = new long[capacity];
+            this.counts = new AtomicIntegerArray(capacity);
+            this.adjustedAt = new long[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private int get(Long key) {
+            int slot = find(key);
+            return slot >= 0 ? counts.get(slot) : ABSENT;
+        }
+
+        private void put(long key, int value, long stamp) {
+            int slot = slotFor(key);
+            if (keys[slot] == EMPTY_KEY) {
+                keys[slot] = key;
+                size++;
+            }
+            counts.set(slot, value);
+            adjustedAt[slot] = stamp;
+        }
+
+        private void put(Long key, Integer value, Table previous, long readVersion) {
+            int slot = previous.find(key);
+            if (slot >= 0 && previous.adjustedAt[slot] > readVersion) {
+                put(key, previous.counts.get(slot), previous.adjustedAt[slot]);
+            } else {
+                put(key, value != null ? value : 0, 0L);
+            }
+        }
+
+        private boolean adjust(Long key, int delta, long stamp) {
+            int slot = find(key);
+            if (slot < 0) {
+                return false;
+            }
+            counts.getAndUpdate(slot, value -> Math.max(0, value + delta));
+            adjustedAt[slot] = stamp;
+            return true;
+        }
+
+        private Set<Long> changedSince(Table previous) {
+            Set<Long> changed = new HashSet<>();
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY_KEY && previous.get(keys[i]) != counts.get(i)) {
+                    changed.add(keys[i]);
+                }
+            }
+            return changed;
+        }
+
+        private void copyTo(Table target) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY_KEY) {
+                    target.put(keys[i], counts.get(i), adjustedAt[i]);
+                }
+            }
+        }
+
+        private int find(Long key) {
+            if (key == null || key == EMPTY_KEY) {
+                return -1;
+            }
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY_KEY) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int slotFor(long key) {
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.courseselection.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public class SeatCountsReloadedEvent {
+
+    private final Set<Long> courseScheduleIds;
+}
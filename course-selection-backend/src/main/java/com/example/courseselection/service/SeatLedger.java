@@ -0,0 +1,509 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.metrics.SelectionMetrics;
+import com.example.courseselection.common.result.ResultCode;
+import com.example.courseselection.dto.response.CourseScheduleDTO;
+import com.example.courseselection.dto.response.CourseSelectionDTO;
+import com.example.courseselection.entity.CourseSchedule;
+import com.example.courseselection.entity.Semester;
+import com.example.courseselection.entity.Student;
+import com.example.courseselection.entity.enums.ScheduleStatus;
+import com.example.courseselection.entity.enums.SelectionStatus;
+import com.example.courseselection.repository.CourseScheduleRepository;
+import com.example.courseselection.repository.CourseSelectionRepository;
+import com.example.courseselection.repository.SemesterRepository;
+import com.example.courseselection.repository.StudentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 高并发选课模式下的内存座位账本。
+ * 当前学期开放课程的座位与学生的本学期已选课程保存在内存中，选课/退课在内存中判定，不开启事务、不占用数据库连接；
+ * 选课/退课记录异步批量写回数据库，并定期与选课表核对。
+ * 选课立即占用座位；退课写回成功后才释放座位，写回失败时座位仍归原学生。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatLedger {
+
+    // 学生已选课程加载时与写回并发的最大重试次数
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final CourseScheduleRepository courseScheduleRepository;
+    private final CourseSelectionRepository courseSelectionRepository;
+    private final SemesterRepository semesterRepository;
+    private final StudentRepository studentRepository;
+    private final SeatWriteBehindService seatWriteBehindService;
+    private final SelectionMetrics selectionMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.course-selection.high-contention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.course-selection.high-contention.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.course-selection.default-max-credits:30}")
+    private Integer defaultMaxCredits;
+
+    @Value("${app.course-selection.default-drop-days:14}")
+    private Integer defaultDropDays;
+
+    private final Map<Long, SeatCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, StudentSeats> students = new ConcurrentHashMap<>();
+    private final Map<String, PendingSeatWrite> pendingWrites = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingSeatWrite> writeQueue = new ConcurrentLinkedQueue<>();
+    // 写回序号：写回进行中为奇数，加载学生已选课程时据此判断是否与写回交错
+    private final AtomicLong flushSequence = new AtomicLong();
+    private volatile Long currentSemesterId;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    public void load() {
+        Semester currentSemester = semesterRepository.findCurrentSemester().orElse(null);
+        if (currentSemester == null) {
+            log.warn("Current semester not set, seat ledger not loaded");
+            return;
+        }
+
+        List<CourseScheduleDTO> openSchedules = courseScheduleRepository
+                .findOpenScheduleDTOsBySemesterId(currentSemester.getId());
+        currentSemesterId = currentSemester.getId();
+        counters.clear();
+        students.clear();
+        openSchedules.forEach(schedule -> counters.put(schedule.getId(), new SeatCounter(schedule.getMaxStudents(),
+                valueOf(schedule.getCurrentStudents()), 0, schedule.getSemesterId(), schedule.getCredits(),
+                schedule.getSelectionStartTime(), schedule.getSelectionEndTime())));
+
+        log.info("Seat ledger loaded with {} open course schedules", counters.size());
+    }
+
+    /**
+     * 开始跟踪开放的课程安排，事务提交后生效。已跟踪的课程只更新容量与选课时间，保留尚未写回的占座。
+     */
+    public void track(CourseSchedule schedule) {
+        if (!enabled || schedule.getStatus() != ScheduleStatus.OPEN) {
+            return;
+        }
+        // 在事务内取出实体字段，提交后不再访问延迟加载的关联
+        Long courseScheduleId = schedule.getId();
+        int maxStudents = schedule.getMaxStudents();
+        Long semesterId = schedule.getSemester().getId();
+        BigDecimal credits = schedule.getCourse().getCredits();
+        LocalDateTime selectionStartTime = schedule.getSelectionStartTime();
+        LocalDateTime selectionEndTime = schedule.getSelectionEndTime();
+        afterCommit(() -> {
+            SeatCounter counter = counters.get(courseScheduleId);
+            if (counter != null) {
+                counter.update(maxStudents, selectionStartTime, selectionEndTime);
+                return;
+            }
+            // 与写回互斥：已持久化人数加待写回选课数即为当前占座数
+            synchronized (this) {
+                int pendingSelects = (int) pendingWrites.values().stream()
+                        .filter(write -> write.getCourseScheduleId().equals(courseScheduleId)
+                                && write.getType() == PendingSeatWrite.Type.SELECT)
+                        .count();
+                int persistedCount = courseSelectionRepository
+                        .countSelectedStudentsByCourseSchedule(courseScheduleId).intValue();
+                counters.putIfAbsent(courseScheduleId, new SeatCounter(maxStudents, persistedCount, pendingSelects,
+                        semesterId, credits, selectionStartTime, selectionEndTime));
+            }
+        });
+    }
+
+    /**
+     * 停止跟踪课程安排，事务提交后生效；之后的选课走数据库路径。
+     */
+    public void untrack(Long courseScheduleId) {
+        afterCommit(() -> counters.remove(courseScheduleId));
+    }
+
+    public boolean isTracked(Long courseScheduleId) {
+        return enabled && counters.containsKey(courseScheduleId);
+    }
+
+    public Integer getCurrentStudents(Long courseScheduleId) {
+        SeatCounter counter = counters.get(courseScheduleId);
+        return counter != null ? counter.current : null;
+    }
+
+    public boolean isPending(Long studentId, Long courseScheduleId) {
+        return pendingWrites.containsKey(PendingSeatWrite.key(studentId, courseScheduleId));
+    }
+
+    public boolean hasPendingWrites(Long courseScheduleId) {
+        return pendingWrites.values().stream()
+                .anyMatch(write -> write.getCourseScheduleId().equals(courseScheduleId));
+    }
+
+    public BigDecimal getPendingCredits(Long studentId) {
+        // 待写回队列按刷新间隔清空，规模很小，直接遍历即可
+        return pendingWrites.values().stream()
+                .filter(write -> write.getStudentId().equals(studentId))
+                .map(write -> write.getCredits().multiply(BigDecimal.valueOf(write.getSeatDelta())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * 在内存中完成选课判定并排队写回；课程未被账本跟踪时返回 false，由调用方走数据库路径。
+     * 除学生首次选课时加载一次已选课程外，不访问数据库。
+     */
+    public boolean select(Long userId, Long courseScheduleId) {
+        SeatCounter counter = enabled ? counters.get(courseScheduleId) : null;
+        if (counter == null) {
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (counter.selectionStartTime != null && now.isBefore(counter.selectionStartTime)) {
+            throw new BusinessException(ResultCode.COURSE_NOT_OPEN, "选课尚未开始");
+        }
+        if (counter.selectionEndTime != null && now.isAfter(counter.selectionEndTime)) {
+            throw new BusinessException(ResultCode.COURSE_SELECTION_CLOSED);
+        }
+
+        StudentSeats student = getStudentSeats(userId);
+        PendingSeatWrite write = new PendingSeatWrite(PendingSeatWrite.Type.SELECT, student.studentId,
+                courseScheduleId, counter.semesterId, counter.credits, now);
+        synchronized (student) {
+            if (pendingWrites.containsKey(write.getKey())) {
+                throw new BusinessException(ResultCode.SELECTION_PENDING);
+            }
+            if (student.selected.containsKey(courseScheduleId)) {
+                throw new BusinessException(ResultCode.ALREADY_SELECTED);
+            }
+            if (student.totalCredits.add(counter.credits).compareTo(BigDecimal.valueOf(student.maxCredits)) > 0) {
+                throw new BusinessException(ResultCode.CREDITS_EXCEEDED);
+            }
+            // 占座与登记待写回在同一把锁内完成，核对任务不会看到已占座但未登记的中间状态
+            if (!counter.tryReserve()) {
+                selectionMetrics.recordRejected(ResultCode.COURSE_FULL);
+                throw new BusinessException(ResultCode.COURSE_FULL);
+            }
+            student.add(courseScheduleId, counter.credits);
+            pendingWrites.put(write.getKey(), write);
+            writeQueue.add(write);
+        }
+
+        selectionMetrics.recordSelected();
+        eventPublisher.publishEvent(new SeatCountChangedEvent(courseScheduleId, 1));
+        log.info("Student {} selected course schedule {} via seat ledger", student.studentId, courseScheduleId);
+        return true;
+    }
+
+    /**
+     * 在内存中完成退课判定并排队写回；座位在退课写回成功后释放。课程未被账本跟踪时返回 false。
+     */
+    public boolean drop(Long userId, Long courseScheduleId) {
+        SeatCounter counter = enabled ? counters.get(courseScheduleId) : null;
+        if (counter == null) {
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        StudentSeats student = getStudentSeats(userId);
+        PendingSeatWrite write = new PendingSeatWrite(PendingSeatWrite.Type.DROP, student.studentId,
+                courseScheduleId, counter.semesterId, counter.credits, now);
+        synchronized (student) {
+            if (pendingWrites.containsKey(write.getKey())) {
+                throw new BusinessException(ResultCode.SELECTION_PENDING);
+            }
+            if (!student.selected.containsKey(courseScheduleId)) {
+                throw new BusinessException(ResultCode.NOT_SELECTED, "未选择该课程");
+            }
+            // 如果选课时间已结束超过指定天数，不允许退课
+            if (counter.selectionEndTime != null && now.isAfter(counter.selectionEndTime.plusDays(defaultDropDays))) {
+                throw new BusinessException(ResultCode.DROP_TIME_EXPIRED);
+            }
+            student.remove(courseScheduleId);
+            pendingWrites.put(write.getKey(), write);
+            writeQueue.add(write);
+        }
+
+        selectionMetrics.recordDropped();
+        log.info("Student {} dropped course schedule {} via seat ledger", student.studentId, courseScheduleId);
+        return true;
+    }
+
+    /**
+     * 学生的选课记录经数据库路径变化后调用，下次访问时重新加载。
+     */
+    public void evictStudent(Long userId) {
+        students.remove(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.high-contention.flush-interval-ms:200}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        List<PendingSeatWrite> batch = new ArrayList<>(batchSize);
+        PendingSeatWrite write;
+        while (batch.size() < batchSize && (write = writeQueue.poll()) != null) {
+            batch.add(write);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        flushSequence.incrementAndGet();
+        try {
+            seatWriteBehindService.applyBatch(batch);
+            batch.forEach(this::completeApplied);
+        } catch (Exception e) {
+            // 批量写回失败时逐条重试，只回滚失败项在账本中的变化
+            log.warn("Seat write-behind batch of {} failed, retrying individually: {}", batch.size(), e.getMessage());
+            batch.forEach(this::applyIndividually);
+        } finally {
+            flushSequence.incrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.high-contention.reconcile-interval-ms:30000}")
+    public synchronized void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        // 与写回互斥：核对期间已持久化的人数不变，只有新的选课占座会改变账本
+        counters.forEach((courseScheduleId, counter) -> {
+            long modifications = counter.getModifications();
+            int persistedCount = courseSelectionRepository.countSelectedStudentsByCourseSchedule(courseScheduleId).intValue();
+            int ledgerCount = counter.reconcile(modifications, persistedCount);
+            if (ledgerCount >= 0) {
+                log.warn("Seat ledger drift on course schedule {}: ledger={}, persisted={}",
+                        courseScheduleId, ledgerCount, persistedCount);
+                seatWriteBehindService.syncCurrentStudents(courseScheduleId, persistedCount);
+            }
+        });
+    }
+
+    private StudentSeats getStudentSeats(Long userId) {
+        StudentSeats seats = students.get(userId);
+        if (seats != null) {
+            return seats;
+        }
+
+        Student student = studentRepository.findByUserId(userId)
+                .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND, "学生不存在"));
+        seats = loadStudentSeats(student);
+        StudentSeats existing = students.putIfAbsent(userId, seats);
+        return existing != null ? existing : seats;
+    }
+
+    private StudentSeats loadStudentSeats(Student student) {
+        int maxCredits = student.getMaxCredits() != null ? student.getMaxCredits() : defaultMaxCredits;
+        StudentSeats seats;
+        int attempt = 0;
+        long sequence;
+        do {
+            // 读取期间有写回进行或完成时重新读取，避免已提交的写回既不在查询结果中、也不在待写回队列中
+            sequence = flushSequence.get();
+            seats = new StudentSeats(student.getId(), maxCredits);
+            for (CourseSelectionDTO selection : courseSelectionRepository.findSelectionDTOsByStudentIdAndSemesterIdAndStatus(
+                    student.getId(), currentSemesterId, SelectionStatus.SELECTED)) {
+                seats.add(selection.getCourseScheduleId(), selection.getCredits());
+            }
+            for (PendingSeatWrite write : pendingWrites.values()) {
+                if (write.getStudentId().equals(student.getId())) {
+                    if (write.getType() == PendingSeatWrite.Type.SELECT) {
+                        seats.add(write.getCourseScheduleId(), write.getCredits());
+                    } else {
+                        seats.remove(write.getCourseScheduleId());
+                    }
+                }
+            }
+        } while (((sequence & 1) == 1 || sequence != flushSequence.get()) && ++attempt < MAX_LOAD_ATTEMPTS);
+        return seats;
+    }
+
+    private void applyIndividually(PendingSeatWrite write) {
+        try {
+            seatWriteBehindService.applyOne(write);
+            completeApplied(write);
+        } catch (Exception e) {
+            log.warn("Seat write-behind failed for student {} on course schedule {}: {}",
+                    write.getStudentId(), write.getCourseScheduleId(), e.getMessage());
+            completeFailed(write);
+        }
+    }
+
+    private void completeApplied(PendingSeatWrite write) {
+        SeatCounter counter = counters.get(write.getCourseScheduleId());
+        if (write.getType() == PendingSeatWrite.Type.SELECT) {
+            if (counter != null) {
+                counter.completeReservation(false);
+            }
+        } else {
+            // 退课已持久化，释放座位并触发候补递补
+            if (counter != null) {
+                counter.release();
+            }
+            eventPublisher.publishEvent(new SeatCountChangedEvent(write.getCourseScheduleId(), -1));
+            eventPublisher.publishEvent(new SeatReleasedEvent(write.getCourseScheduleId()));
+        }
+        pendingWrites.remove(write.getKey(), write);
+    }
+
+    private void completeFailed(PendingSeatWrite write) {
+        SeatCounter counter = counters.get(write.getCourseScheduleId());
+        if (write.getType() == PendingSeatWrite.Type.SELECT) {
+            // 选课未能写回，归还占用的座位
+            if (counter != null) {
+                counter.completeReservation(true);
+            }
+            eventPublisher.publishEvent(new SeatCountChangedEvent(write.getCourseScheduleId(), -1));
+        }
+        pendingWrites.remove(write.getKey(), write);
+        // 学生的内存状态与数据库不一致，下次访问时重新加载
+        students.values().removeIf(seats -> seats.studentId.equals(write.getStudentId()));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static final class SeatCounter {
+
+        private final Long semesterId;
+        private final BigDecimal credits;
+        private volatile int maxStudents;
+        private volatile LocalDateTime selectionStartTime;
+        private volatile LocalDateTime selectionEndTime;
+        private volatile int current;
+        // 已占座但尚未写回的选课数
+        private int pendingSelects;
+        // 占座次数，核对任务据此判断读取数据库期间账本是否变化
+        private long modifications;
+
+        private SeatCounter(int maxStudents, int persistedStudents, int pendingSelects, Long semesterId,
+                            BigDecimal credits, LocalDateTime selectionStartTime, LocalDateTime selectionEndTime) {
+            this.maxStudents = maxStudents;
+            this.current = persistedStudents + pendingSelects;
+            this.pendingSelects = pendingSelects;
+            this.semesterId = semesterId;
+            this.credits = credits != null ? credits : BigDecimal.ZERO;
+            this.selectionStartTime = selectionStartTime;
+            this.selectionEndTime = selectionEndTime;
+        }
+
+        private synchronized void update(int maxStudents, LocalDateTime selectionStartTime,
+                                         LocalDateTime selectionEndTime) {
+            this.maxStudents = maxStudents;
+            this.selectionStartTime = selectionStartTime;
+            this.selectionEndTime = selectionEndTime;
+        }
+
+        private synchronized boolean tryReserve() {
+            if (current >= maxStudents) {
+                return false;
+            }
+            current++;
+            pendingSelects++;
+            modifications++;
+            return true;
+        }
+
+        private synchronized void completeReservation(boolean failed) {
+            pendingSelects--;
+            if (failed && current > 0) {
+                current--;
+            }
+        }
+
+        private synchronized void release() {
+            if (current > 0) {
+                current--;
+            }
+        }
+
+        private synchronized long getModifications() {
+            return modifications;
+        }
+
+        /**
+         * 读取数据库期间没有新的占座时，将账本校正为已持久化人数加待写回选课数；发生校正时返回校正前的人数，否则返回 -1。
+         */
+        private synchronized int reconcile(long expectedModifications, int persistedCount) {
+            int expected = persistedCount + pendingSelects;
+            if (modifications != expectedModifications || current == expected) {
+                return -1;
+            }
+            int before = current;
+            current = expected;
+            return before;
+        }
+    }
+
+    private static final class StudentSeats {
+
+        private final Long studentId;
+        private final int maxCredits;
+        // 本学期已选（含待写回）的课程安排及学分
+        private final Map<Long, BigDecimal> selected = new HashMap<>();
+        private BigDecimal totalCredits = BigDecimal.ZERO;
+
+        private StudentSeats(Long studentId, int maxCredits) {
+            this.studentId = studentId;
+            this.maxCredits = maxCredits;
+        }
+
+        private void add(Long courseScheduleId, BigDecimal credits) {
+            BigDecimal value = credits != null ? credits : BigDecimal.ZERO;
+            if (selected.put(courseScheduleId, value) == null) {
+                totalCredits = totalCredits.add(value);
+            }
+        }
+
+        private void remove(Long courseScheduleId) {
+            BigDecimal credits = selected.remove(courseScheduleId);
+            if (credits != null) {
+                totalCredits = totalCredits.subtract(credits);
+            }
+        }
+    }
+}
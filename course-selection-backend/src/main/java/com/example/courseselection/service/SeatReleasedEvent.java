@@ -0,0 +1,11 @@
+package com.example.courseselection.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SeatReleasedEvent {
+
+    private final Long courseScheduleId;
+}
@@ -0,0 +1,108 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.result.ResultCode;
+import com.example.courseselection.entity.CourseSelection;
+import com.example.courseselection.entity.enums.SelectionStatus;
+import com.example.courseselection.repository.CourseScheduleRepository;
+import com.example.courseselection.repository.CourseSelectionRepository;
+import com.example.courseselection.repository.StudentRepository;
+import com.example.courseselection.repository.StudentSemesterSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatWriteBehindService {
+
+    private final CourseSelectionRepository courseSelectionRepository;
+    private final CourseScheduleRepository courseScheduleRepository;
+    private final StudentRepository studentRepository;
+    private final StudentSemesterSummaryRepository studentSemesterSummaryRepository;
+
+    @Transactional
+    public void applyBatch(List<PendingSeatWrite> writes) {
+        Map<Long, Integer> seatDeltas = new HashMap<>();
+        Map<String, PendingSeatWrite> summaryKeys = new HashMap<>();
+        Map<String, BigDecimal> creditDeltas = new HashMap<>();
+        Map<String, Integer> countDeltas = new HashMap<>();
+        for (PendingSeatWrite write : writes) {
+            if (write.getType() == PendingSeatWrite.Type.SELECT) {
+                applySelect(write);
+            } else {
+                applyDrop(write);
+            }
+            seatDeltas.merge(write.getCourseScheduleId(), write.getSeatDelta(), Integer::sum);
+
+            String summaryKey = write.getStudentId() + ":" + write.getSemesterId();
+            summaryKeys.putIfAbsent(summaryKey, write);
+            creditDeltas.merge(summaryKey, write.getCredits().multiply(BigDecimal.valueOf(write.getSeatDelta())),
+                    BigDecimal::add);
+            countDeltas.merge(summaryKey, write.getSeatDelta(), Integer::sum);
+        }
+
+        // 同一课程的多次变更合并为一条更新
+        seatDeltas.forEach((courseScheduleId, delta) -> {
+            if (delta != 0) {
+                courseScheduleRepository.adjustCurrentStudents(courseScheduleId, delta);
+            }
+        });
+
+        // 学生学期学分汇总与选课记录在同一事务中写回
+        summaryKeys.forEach((summaryKey, write) -> {
+            int countDelta = countDeltas.get(summaryKey);
+            BigDecimal creditDelta = creditDeltas.get(summaryKey);
+            if (countDelta != 0 || creditDelta.signum() != 0) {
+                studentSemesterSummaryRepository.adjust(write.getStudentId(), write.getSemesterId(),
+                        creditDelta, countDelta);
+            }
+        });
+    }
+
+    @Transactional
+    public void applyOne(PendingSeatWrite write) {
+        applyBatch(List.of(write));
+    }
+
+    @Transactional
+    public void syncCurrentStudents(Long courseScheduleId, int currentStudents) {
+        courseScheduleRepository.syncCurrentStudents(courseScheduleId, currentStudents);
+    }
+
+    private void applySelect(PendingSeatWrite write) {
+        CourseSelection courseSelection = courseSelectionRepository
+                .findByStudentIdAndCourseScheduleId(write.getStudentId(), write.getCourseScheduleId())
+                .orElse(null);
+
+        if (courseSelection == null) {
+            courseSelection = new CourseSelection();
+            courseSelection.setStudent(studentRepository.getReferenceById(write.getStudentId()));
+            courseSelection.setCourseSchedule(courseScheduleRepository.getReferenceById(write.getCourseScheduleId()));
+        } else if (courseSelection.getStatus() == SelectionStatus.SELECTED) {
+            throw new BusinessException(ResultCode.ALREADY_SELECTED);
+        }
+
+        // 退课后重选时复用原记录，避免触发 (student_id, course_schedule_id) 唯一约束
+        courseSelection.setSelectionTime(write.getTime());
+        courseSelection.setStatus(SelectionStatus.SELECTED);
+        courseSelectionRepository.save(courseSelection);
+    }
+
+    private void applyDrop(PendingSeatWrite write) {
+        CourseSelection courseSelection = courseSelectionRepository
+                .findByStudentIdAndCourseScheduleId(write.getStudentId(), write.getCourseScheduleId())
+                .filter(selection -> selection.getStatus() == SelectionStatus.SELECTED)
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_SELECTED));
+
+        courseSelection.setStatus(SelectionStatus.DROPPED);
+        courseSelectionRepository.save(courseSelection);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.repository.StudentSemesterSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 课程目录与已选课程列表的 ETag：由目录快照版本、实时座位表版本、学生选课汇总版本与查询参数组成。
+ * 版本号只增不减，内容变化必然导致 ETag 变化；计算过程只读取内存版本号和一条主键汇总查询。
+ */
+@Service
+@RequiredArgsConstructor
+public class SelectionETagService {
+
+    // 进程启动标识，避免重启或多节点之间的版本号碰撞
+    private static final String INSTANCE_ID = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final SeatCountTable seatCountTable;
+    private final StudentSemesterSummaryRepository studentSemesterSummaryRepository;
+
+    /**
+     * 可选课程列表的 ETag；未启用课程目录快照时返回 null，不做条件请求处理。
+     */
+    public String getAvailableCoursesETag(Long userId, Pageable pageable, String keyword) {
+        CatalogSnapshotService.CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot().orElse(null);
+        if (snapshot == null) {
+            return null;
+        }
+        // 先读取版本号再生成响应，版本号滞后只会导致多一次完整响应，不会误返回 304
+        long seatVersion = seatCountTable.getVersion();
+        long selectionVersion = studentSemesterSummaryRepository.sumVersionsByUserId(userId);
+        int windowEpoch = snapshot.getSelectionWindowEpoch(LocalDateTime.now());
+
+        return "\"c-" + INSTANCE_ID + "-" + snapshot.getVersion() + "-" + seatVersion + "-"
+                + selectionVersion + "-" + windowEpoch + "-" + hash(userId, pageable, keyword) + "\"";
+    }
+
+    /**
+     * 已选课程列表的 ETag；未启用课程目录快照时返回 null。
+     */
+    public String getMySelectedCoursesETag(Long userId, Pageable pageable) {
+        CatalogSnapshotService.CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot().orElse(null);
+        if (snapshot == null) {
+            return null;
+        }
+        long selectionVersion = studentSemesterSummaryRepository.sumVersionsByUserId(userId);
+
+        return "\"m-" + INSTANCE_ID + "-" + snapshot.getVersion() + "-" + selectionVersion + "-"
+                + hash(userId, pageable, null) + "\"";
+    }
+
+    private static String hash(Long userId, Pageable pageable, String keyword) {
+        return Integer.toHexString(Objects.hash(userId, pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort().toString(), keyword != null ? keyword.trim() : null));
+    }
+}
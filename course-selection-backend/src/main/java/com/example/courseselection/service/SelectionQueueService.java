@@ -0,0 +1,181 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.result.ResultCode;
+import com.example.courseselection.dto.response.SelectionTicketDTO;
+import com.example.courseselection.dto.response.SelectionTicketDTO.TicketStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 排队选课：请求按课程安排ID路由到固定数量的单线程分片，同一课程只有一个写入者，按先进先出顺序处理。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SelectionQueueService {
+
+    private final CourseSelectionService courseSelectionService;
+    private final SeatLedger seatLedger;
+
+    @Value("${app.course-selection.queue.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.course-selection.queue.shards:8}")
+    private int shardCount;
+
+    @Value("${app.course-selection.queue.shard-capacity:5000}")
+    private int shardCapacity;
+
+    @Value("${app.course-selection.queue.ticket-ttl-ms:600000}")
+    private long ticketTtlMs;
+
+    @Value("${app.course-selection.queue.max-wait-ms:10000}")
+    private long maxWaitMs;
+
+    private final Map<String, SelectionTicket> tickets = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor[] shards;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        shards = new ThreadPoolExecutor[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String threadName = "selection-shard-" + i;
+            shards[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(shardCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        log.info("Selection queue started with {} shards", shardCount);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (shards == null) {
+            return;
+        }
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SelectionTicketDTO submit(Long userId, Long courseScheduleId) {
+        SelectionTicket ticket = new SelectionTicket(UUID.randomUUID().toString(), userId, courseScheduleId);
+        tickets.put(ticket.ticketId, ticket);
+
+        try {
+            shards[Math.floorMod(courseScheduleId.hashCode(), shards.length)].execute(() -> process(ticket));
+        } catch (RejectedExecutionException e) {
+            tickets.remove(ticket.ticketId);
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "选课排队人数过多，请稍后再试");
+        }
+
+        return ticket.toDTO();
+    }
+
+    public CompletableFuture<SelectionTicketDTO> getTicket(Long userId, String ticketId, long waitMs) {
+        SelectionTicket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.userId.equals(userId)) {
+            throw new BusinessException(ResultCode.NOT_FOUND, "选课凭证不存在或已过期");
+        }
+
+        if (waitMs <= 0 || ticket.completion.isDone()) {
+            return CompletableFuture.completedFuture(ticket.toDTO());
+        }
+
+        // 等待处理结果，超时后返回当前状态
+        return ticket.completion
+                .thenApply(ignored -> ticket.toDTO())
+                .completeOnTimeout(null, Math.min(waitMs, maxWaitMs), TimeUnit.MILLISECONDS)
+                .thenApply(dto -> dto != null ? dto : ticket.toDTO());
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.queue.cleanup-interval-ms:60000}")
+    public void evictExpiredTickets() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime expiry = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(ticketTtlMs));
+        tickets.values().removeIf(ticket -> ticket.completedAt != null && ticket.completedAt.isBefore(expiry));
+    }
+
+    private void process(SelectionTicket ticket) {
+        try {
+            if (!seatLedger.select(ticket.userId, ticket.courseScheduleId)) {
+                courseSelectionService.selectCourse(ticket.userId, ticket.courseScheduleId);
+            }
+            ticket.complete(TicketStatus.SUCCESS, ResultCode.SUCCESS.getCode(), "选课成功");
+        } catch (BusinessException e) {
+            ticket.complete(TicketStatus.FAILED, e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("Queued selection failed for user {} on course schedule {}",
+                    ticket.userId, ticket.courseScheduleId, e);
+            ticket.complete(TicketStatus.FAILED, ResultCode.INTERNAL_SERVER_ERROR.getCode(),
+                    ResultCode.INTERNAL_SERVER_ERROR.getMessage());
+        }
+    }
+
+    private static final class SelectionTicket {
+
+        private final String ticketId;
+        private final Long userId;
+        private final Long courseScheduleId;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private volatile TicketStatus status = TicketStatus.PENDING;
+        private volatile Integer resultCode;
+        private volatile String resultMessage;
+        private volatile LocalDateTime completedAt;
+
+        private SelectionTicket(String ticketId, Long userId, Long courseScheduleId) {
+            this.ticketId = ticketId;
+            this.userId = userId;
+            this.courseScheduleId = courseScheduleId;
+        }
+
+        private void complete(TicketStatus status, Integer resultCode, String resultMessage) {
+            this.resultCode = resultCode;
+            this.resultMessage = resultMessage;
+            this.completedAt = LocalDateTime.now();
+            this.status = status;
+            completion.complete(null);
+        }
+
+        private SelectionTicketDTO toDTO() {
+            SelectionTicketDTO dto = new SelectionTicketDTO();
+            dto.setTicketId(ticketId);
+            dto.setCourseScheduleId(courseScheduleId);
+            dto.setStatus(status);
+            dto.setResultCode(resultCode);
+            dto.setResultMessage(resultMessage);
+            dto.setCreatedAt(createdAt);
+            dto.setCompletedAt(completedAt);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.repository.CourseSelectionRepository;
+import com.example.courseselection.repository.StudentSemesterSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * 学生学期选课汇总（已选学分、已选门数），与选课/退课在同一事务中增量维护，替代每次选课时的 SUM 查询。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StudentSemesterSummaryService {
+
+    private final StudentSemesterSummaryRepository studentSemesterSummaryRepository;
+    private final CourseSelectionRepository courseSelectionRepository;
+
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalCredits(Long studentId, Long semesterId) {
+        return studentSemesterSummaryRepository.findTotalCredits(studentId, semesterId)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    @Transactional
+    public void recordSelected(Long studentId, Long semesterId, BigDecimal credits, int count) {
+        studentSemesterSummaryRepository.adjust(studentId, semesterId, credits, count);
+    }
+
+    @Transactional
+    public void recordDropped(Long studentId, Long semesterId, BigDecimal credits, int count) {
+        studentSemesterSummaryRepository.adjust(studentId, semesterId, credits.negate(), -count);
+    }
+
+    @Transactional
+    public int rebuild() {
+        studentSemesterSummaryRepository.resetAll();
+        int rows = studentSemesterSummaryRepository.rebuildFromSelections();
+        log.info("Rebuilt student semester summary from course selections ({} rows affected)", rows);
+        return rows;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        // 首次部署时汇总表为空，从选课记录初始化
+        if (studentSemesterSummaryRepository.count() == 0 && courseSelectionRepository.count() > 0) {
+            rebuild();
+        }
+    }
+}
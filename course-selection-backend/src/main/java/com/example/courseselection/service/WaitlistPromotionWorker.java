@@ -0,0 +1,60 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.repository.WaitlistRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 候补递补任务：监听座位释放事件，并定期扫描有空余座位的课程，作为多节点及事件丢失时的兜底。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WaitlistPromotionWorker {
+
+    private final WaitlistService waitlistService;
+    private final WaitlistRepository waitlistRepository;
+
+    @Value("${app.course-selection.waitlist.enabled:true}")
+    private boolean enabled;
+
+    private final Set<Long> releasedSchedules = ConcurrentHashMap.newKeySet();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatReleased(SeatReleasedEvent event) {
+        if (enabled) {
+            releasedSchedules.add(event.getCourseScheduleId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.waitlist.promote-interval-ms:500}")
+    public void promote() {
+        Iterator<Long> iterator = releasedSchedules.iterator();
+        while (iterator.hasNext()) {
+            Long courseScheduleId = iterator.next();
+            iterator.remove();
+            try {
+                while (waitlistService.promoteNext(courseScheduleId)) {
+                    // 持续递补直到候补队列为空或座位再次占满
+                }
+            } catch (Exception e) {
+                log.warn("Waitlist promotion failed for course schedule {}: {}", courseScheduleId, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.course-selection.waitlist.sweep-interval-ms:60000}")
+    public void sweep() {
+        if (enabled) {
+            releasedSchedules.addAll(waitlistRepository.findScheduleIdsWithFreeSeats());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.result.ResultCode;
+import com.example.courseselection.entity.CourseSchedule;
+import com.example.courseselection.entity.Student;
+import com.example.courseselection.entity.Waitlist;
+import com.example.courseselection.entity.enums.ScheduleStatus;
+import com.example.courseselection.entity.enums.SelectionStatus;
+import com.example.courseselection.entity.enums.WaitlistStatus;
+import com.example.courseselection.repository.CourseScheduleRepository;
+import com.example.courseselection.repository.CourseSelectionRepository;
+import com.example.courseselection.repository.StudentRepository;
+import com.example.courseselection.repository.WaitlistRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WaitlistService {
+
+    private final WaitlistRepository waitlistRepository;
+    private final StudentRepository studentRepository;
+    private final CourseScheduleRepository courseScheduleRepository;
+    private final CourseSelectionRepository courseSelectionRepository;
+    private final CourseSelectionService courseSelectionService;
+    private final SeatLedger seatLedger;
+
+    @Transactional
+    public long joinWaitlist(Long userId, Long courseScheduleId) {
+        Student student = studentRepository.findByUserId(userId)
+                .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND, "学生不存在"));
+
+        CourseSchedule courseSchedule = courseScheduleRepository.findById(courseScheduleId)
+                .orElseThrow(() -> new BusinessException(ResultCode.COURSE_NOT_FOUND, "课程安排不存在"));
+
+        if (courseSchedule.getStatus() != ScheduleStatus.OPEN) {
+            throw new BusinessException(ResultCode.COURSE_NOT_OPEN);
+        }
+
+        // 高并发模式下数据库人数落后于内存账本，以账本为准
+        Integer ledgerStudents = seatLedger.isTracked(courseScheduleId)
+                ? seatLedger.getCurrentStudents(courseScheduleId) : null;
+        int currentStudents = ledgerStudents != null ? ledgerStudents : courseSchedule.getCurrentStudents();
+        if (currentStudents < courseSchedule.getMaxStudents()) {
+            throw new BusinessException(ResultCode.COURSE_NOT_FULL);
+        }
+
+        if (courseSelectionRepository.existsByStudentIdAndCourseScheduleIdAndStatus(
+                student.getId(), courseScheduleId, SelectionStatus.SELECTED)) {
+            throw new BusinessException(ResultCode.ALREADY_SELECTED);
+        }
+
+        // 历史候补记录（已递补或已取消）重新排队时复用
+        Waitlist waitlist = waitlistRepository.findByStudentIdAndCourseScheduleId(student.getId(), courseScheduleId)
+                .orElse(null);
+        if (waitlist == null) {
+            waitlist = new Waitlist();
+            waitlist.setStudent(student);
+            waitlist.setCourseSchedule(courseSchedule);
+        } else if (waitlist.getStatus() == WaitlistStatus.WAITING) {
+            throw new BusinessException(ResultCode.ALREADY_WAITLISTED);
+        }
+
+        waitlist.setStatus(WaitlistStatus.WAITING);
+        waitlist.setQueuedAt(LocalDateTime.now());
+        waitlist.setProcessedAt(null);
+        waitlist.setRemark(null);
+        waitlistRepository.save(waitlist);
+
+        log.info("Student {} joined waitlist of course schedule {}", student.getId(), courseScheduleId);
+        return waitlistRepository.countWaitingAhead(courseScheduleId, waitlist.getQueuedAt());
+    }
+
+    @Transactional
+    public void leaveWaitlist(Long userId, Long courseScheduleId) {
+        Student student = studentRepository.findByUserId(userId)
+                .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND, "学生不存在"));
+
+        Waitlist waitlist = waitlistRepository.findByStudentIdAndCourseScheduleId(student.getId(), courseScheduleId)
+                .filter(entry -> entry.getStatus() == WaitlistStatus.WAITING)
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_WAITLISTED));
+
+        waitlist.setStatus(WaitlistStatus.CANCELLED);
+        waitlist.setProcessedAt(LocalDateTime.now());
+        waitlist.setRemark("学生取消候补");
+        waitlistRepository.save(waitlist);
+
+        log.info("Student {} left waitlist of course schedule {}", student.getId(), courseScheduleId);
+    }
+
+    /**
+     * 按先进先出顺序递补一名候补学生；返回 false 表示没有可处理的候补或已无空余座位。
+     */
+    @Transactional
+    public boolean promoteNext(Long courseScheduleId) {
+        Waitlist waitlist = waitlistRepository.lockNextWaiting(courseScheduleId).orElse(null);
+        if (waitlist == null) {
+            return false;
+        }
+
+        try {
+            courseSelectionService.selectCourseForWaitlist(waitlist.getStudent(), courseScheduleId);
+            waitlist.setStatus(WaitlistStatus.PROMOTED);
+            log.info("Promoted student {} from waitlist of course schedule {}",
+                    waitlist.getStudent().getId(), courseScheduleId);
+        } catch (BusinessException e) {
+            // 座位已被占满或正在处理时保留候补，等待下一次释放
+            if (ResultCode.COURSE_FULL.getCode().equals(e.getCode())
+                    || ResultCode.SELECTION_PENDING.getCode().equals(e.getCode())) {
+                return false;
+            }
+            // 学生不再满足选课条件（学分、时间等），取消该候补并继续处理下一位
+            waitlist.setStatus(WaitlistStatus.CANCELLED);
+            waitlist.setRemark(e.getMessage());
+        }
+
+        waitlist.setProcessedAt(LocalDateTime.now());
+        waitlistRepository.save(waitlist);
+        return true;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.courseselection.common.idempotency;
+
+import com.example.courseselection.entity.enums.UserRole;
+import com.example.courseselection.entity.enums.UserStatus;
+import com.example.courseselection.security.CustomUserDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private static final String SELECT_PATH = "/course-selection/select";
+    private static final String BATCH_PATH = "/course-selection/select-batch";
+
+    private IdempotencyFilter filter;
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore();
+        ReflectionTestUtils.setField(store, "ttlMs", 600000L);
+        ReflectionTestUtils.setField(store, "maxEntries", 1000);
+        filter = new IdempotencyFilter(store, new ObjectMapper());
+
+        CustomUserDetails user = new CustomUserDetails(1L, "student", null, null, "学生",
+                UserRole.STUDENT, UserStatus.ACTIVE);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void successIsReplayedWithoutInvokingHandler() throws Exception {
+        String body = "{\"code\":200,\"message\":\"选课成功\",\"data\":null}";
+
+        MockHttpServletResponse first = perform(SELECT_PATH, "key-1", body);
+        MockHttpServletResponse second = perform(SELECT_PATH, "key-1", body);
+
+        assertThat(invocations).hasValue(1);
+        assertThat(second.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(first.getContentAsString(StandardCharsets.UTF_8));
+        assertThat(second.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void terminalBusinessFailureIsReplayed() throws Exception {
+        String body = "{\"code\":3001,\"message\":\"已选择该课程\",\"data\":null}";
+
+        perform(SELECT_PATH, "key-1", body);
+        perform(SELECT_PATH, "key-1", body);
+
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    void transientFailuresReleaseTheKey() throws Exception {
+        for (int code : new int[]{2003, 3007, 503}) {
+            invocations.set(0);
+            String body = "{\"code\":" + code + ",\"message\":\"\",\"data\":null}";
+
+            perform(SELECT_PATH, "key-" + code, body);
+            perform(SELECT_PATH, "key-" + code, body);
+
+            assertThat(invocations).as("code %d", code).hasValue(2);
+        }
+    }
+
+    @Test
+    void batchWithTransientItemIsNotStored() throws Exception {
+        String body = "{\"code\":200,\"message\":\"批量选课完成\",\"data\":["
+                + "{\"courseScheduleId\":1,\"success\":true,\"code\":200,\"message\":\"选课成功\"},"
+                + "{\"courseScheduleId\":2,\"success\":false,\"code\":2003,\"message\":\"课程人数已满\"}]}";
+
+        perform(BATCH_PATH, "key-1", body);
+        perform(BATCH_PATH, "key-1", body);
+
+        assertThat(invocations).hasValue(2);
+    }
+
+    @Test
+    void serverErrorReleasesTheKey() throws Exception {
+        perform(SELECT_PATH, "key-1", "{\"code\":500}", 500);
+        perform(SELECT_PATH, "key-1", "{\"code\":500}", 500);
+
+        assertThat(invocations).hasValue(2);
+    }
+
+    private MockHttpServletResponse perform(String path, String key, String body) throws Exception {
+        return perform(path, key, body, 200);
+    }
+
+    private MockHttpServletResponse perform(String path, String key, String body, int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            invocations.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(status);
+            res.setContentType("application/json");
+            res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.courseselection.common.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryIdempotencyStoreTest {
+
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "ttlMs", 600000L);
+        ReflectionTestUtils.setField(store, "maxEntries", 2);
+    }
+
+    @Test
+    void abandonedKeyRetriedLaterIsNotEvictedByItsStaleRecord() {
+        assertThat(store.tryBegin("retried")).isTrue();
+        store.abandon("retried");
+        assertThat(store.tryBegin("other")).isTrue();
+        assertThat(store.tryBegin("retried")).isTrue();
+
+        // 超出容量：应淘汰最早的 other，而不是重试中的 retried
+        assertThat(store.tryBegin("newest")).isTrue();
+
+        assertThat(store.tryBegin("retried")).isFalse();
+        assertThat(store.tryBegin("other")).isTrue();
+    }
+
+    @Test
+    void overflowEvictsEldestKey() {
+        store.tryBegin("a");
+        store.tryBegin("b");
+        store.tryBegin("c");
+
+        assertThat(store.tryBegin("a")).isTrue();
+        assertThat(store.tryBegin("c")).isFalse();
+    }
+}
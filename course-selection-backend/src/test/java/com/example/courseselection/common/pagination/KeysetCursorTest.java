@@ -0,0 +1,67 @@
+package com.example.courseselection.common.pagination;
+
+import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.result.ResultCode;
+import com.example.courseselection.dto.response.CursorPageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsTimeAndId() {
+        LocalDateTime time = LocalDateTime.of(2026, 9, 1, 8, 30, 15, 123_000_000);
+
+        KeysetCursor decoded = KeysetCursor.decode(KeysetCursor.of(time, 42L).encode());
+
+        assertThat(decoded.getTime()).isEqualTo(time);
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripsIdOnly() {
+        KeysetCursor decoded = KeysetCursor.decode(KeysetCursor.of(7L).encode());
+
+        assertThat(decoded.getTime()).isNull();
+        assertThat(decoded.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode("  ")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursorAsParamError() {
+        for (String token : List.of("not base64!", "bm8tc2VwYXJhdG9y", "eHw0Mg")) {
+            assertThatThrownBy(() -> KeysetCursor.decode(token))
+                    .isInstanceOf(BusinessException.class)
+                    .extracting(e -> ((BusinessException) e).getCode())
+                    .isEqualTo(ResultCode.PARAM_ERROR.getCode());
+        }
+    }
+
+    @Test
+    void pageTrimsLookaheadRowAndPointsCursorAtLastReturnedRow() {
+        CursorPageDTO<Long> page = CursorPageDTO.of(List.of(1L, 2L, 3L), 2, KeysetCursor::of);
+
+        assertThat(page.getContent()).containsExactly(1L, 2L);
+        assertThat(page.getHasNext()).isTrue();
+        assertThat(KeysetCursor.decode(page.getNextCursor()).getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CursorPageDTO<Long> page = CursorPageDTO.of(List.of(1L, 2L), 2, KeysetCursor::of);
+
+        assertThat(page.getContent()).containsExactly(1L, 2L);
+        assertThat(page.getHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+}
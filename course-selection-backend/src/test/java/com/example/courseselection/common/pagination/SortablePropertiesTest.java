@@ -0,0 +1,41 @@
+package com.example.courseselection.common.pagination;
+
+import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.result.ResultCode;
+import com.example.courseselection.repository.CourseScheduleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SortablePropertiesTest {
+
+    private final SortableProperties sortable = CourseScheduleRepository.SCHEDULE_DTO_SORTABLE;
+
+    @Test
+    void mapsWhitelistedPropertiesToQueryPaths() {
+        Pageable resolved = sortable.resolve(PageRequest.of(2, 20,
+                Sort.by(Sort.Direction.DESC, "teacherName").and(Sort.by("id"))));
+
+        assertThat(resolved.getPageNumber()).isEqualTo(2);
+        assertThat(resolved.getPageSize()).isEqualTo(20);
+        assertThat(resolved.getSort().getOrderFor("u.realName").getDirection()).isEqualTo(Sort.Direction.DESC);
+        assertThat(resolved.getSort().getOrderFor("cs.id").getDirection()).isEqualTo(Sort.Direction.ASC);
+    }
+
+    @Test
+    void rejectsUnknownPropertyAsParamError() {
+        assertThatThrownBy(() -> sortable.resolve(PageRequest.of(0, 10, Sort.by("cs.id; drop table users"))))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ResultCode.PARAM_ERROR.getCode());
+    }
+
+    @Test
+    void keepsUnsortedPageable() {
+        assertThat(sortable.resolve(PageRequest.of(0, 10)).getSort().isUnsorted()).isTrue();
+    }
+}
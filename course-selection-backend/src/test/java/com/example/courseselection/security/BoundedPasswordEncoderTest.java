@@ -0,0 +1,25 @@
+package com.example.courseselection.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void queueHoldsOnlyTasksThatCanFinishWithinTheWait() {
+        // 4 个线程、每次约 100 ms、最多等待 300 ms：队尾任务前面最多还有 2 轮
+        assertThat(BoundedPasswordEncoder.queueCapacityFor(200, 4, 300, 100)).isEqualTo(8);
+    }
+
+    @Test
+    void queueStaysWellBelowRequestThreads() {
+        assertThat(BoundedPasswordEncoder.queueCapacityFor(200, 4, 60_000, 100)).isEqualTo(46);
+    }
+
+    @Test
+    void queueKeepsAtLeastOneSlot() {
+        assertThat(BoundedPasswordEncoder.queueCapacityFor(8, 16, 300, 100)).isEqualTo(1);
+        assertThat(BoundedPasswordEncoder.queueCapacityFor(200, 4, 50, 100)).isEqualTo(1);
+    }
+}
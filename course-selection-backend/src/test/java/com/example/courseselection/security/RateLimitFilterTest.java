@@ -0,0 +1,75 @@
+package com.example.courseselection.security;
+
+import com.example.courseselection.entity.enums.UserRole;
+import com.example.courseselection.entity.enums.UserStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        filter = new RateLimitFilter(new SimpleMeterRegistry(), new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "selectCapacity", 1);
+        ReflectionTestUtils.setField(filter, "dropCapacity", 1);
+        ReflectionTestUtils.setField(filter, "waitlistCapacity", 1);
+        ReflectionTestUtils.setField(filter, "ticketCapacity", 1);
+        ReflectionTestUtils.setField(filter, "readCapacity", 1);
+        for (String budget : new String[]{"select", "drop", "waitlist", "ticket", "read"}) {
+            ReflectionTestUtils.setField(filter, budget + "RefillPerSecond", 0.001);
+        }
+
+        CustomUserDetails user = new CustomUserDetails(1L, "student", null, null, "学生",
+                UserRole.STUDENT, UserStatus.ACTIVE);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void streamSubscriptionIsNotLimited() throws Exception {
+        assertThat(perform("GET", "/course-selection/stream")).isEqualTo(200);
+        assertThat(perform("GET", "/course-selection/stream")).isEqualTo(200);
+        assertThat(perform("GET", "/course-selection/available")).isEqualTo(200);
+    }
+
+    @Test
+    void ticketPollingHasItsOwnBudget() throws Exception {
+        assertThat(perform("GET", "/course-selection/tickets/t-1")).isEqualTo(200);
+        assertThat(perform("GET", "/course-selection/tickets/t-1")).isEqualTo(429);
+        assertThat(perform("GET", "/course-selection/available")).isEqualTo(200);
+    }
+
+    @Test
+    void waitlistJoinAndLeaveShareTheWaitlistBudget() throws Exception {
+        assertThat(perform("POST", "/course-selection/waitlist/100")).isEqualTo(200);
+        assertThat(perform("DELETE", "/course-selection/waitlist/100")).isEqualTo(429);
+        assertThat(perform("POST", "/course-selection/select")).isEqualTo(200);
+    }
+
+    private int perform(String method, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
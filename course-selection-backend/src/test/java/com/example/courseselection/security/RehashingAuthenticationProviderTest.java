@@ -0,0 +1,63 @@
+package com.example.courseselection.security;
+
+import com.example.courseselection.entity.enums.UserRole;
+import com.example.courseselection.entity.enums.UserStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RehashingAuthenticationProviderTest {
+
+    private static final String OLD_HASH = "$2a$04$old";
+
+    @Mock
+    private BoundedPasswordEncoder passwordEncoder;
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    private RehashingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new RehashingAuthenticationProvider(passwordEncoder, userDetailsService);
+        provider.setUserDetailsService(userDetailsService);
+        UserDetails user = new CustomUserDetails(1L, "student", OLD_HASH, null, "学生",
+                UserRole.STUDENT, UserStatus.ACTIVE);
+        when(userDetailsService.loadUserByUsername("student")).thenReturn(user);
+        when(passwordEncoder.matches("secret", OLD_HASH)).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(OLD_HASH)).thenReturn(true);
+    }
+
+    @Test
+    void busyHashingPoolKeepsOldHashAndLoginSucceeds() {
+        when(passwordEncoder.tryEncode("secret")).thenReturn(null);
+
+        Authentication result = provider.authenticate(new UsernamePasswordAuthenticationToken("student", "secret"));
+
+        assertThat(result.isAuthenticated()).isTrue();
+        verify(userDetailsService, never()).updatePassword(any(), any());
+    }
+
+    @Test
+    void rehashedPasswordIsStored() {
+        when(passwordEncoder.tryEncode("secret")).thenReturn("$2a$10$new");
+        when(userDetailsService.updatePassword(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("student", "secret"));
+
+        verify(userDetailsService).updatePassword(any(), eq("$2a$10$new"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.courseselection.security;
+
+import com.example.courseselection.repository.TokenRevocationRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(tokenRevocationRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tokenRevocationService, "expectedEntries", 1000);
+    }
+
+    @Test
+    void onlyTheFirstRevocationOfATokenSucceeds() {
+        Claims claims = claims("jti-1");
+        when(tokenRevocationRepository.insertIfAbsent(eq("jti-1"), eq(1L), any(), any())).thenReturn(1, 0);
+
+        assertThat(tokenRevocationService.revokeToken(claims)).isTrue();
+        assertThat(tokenRevocationService.revokeToken(claims)).isFalse();
+        assertThat(tokenRevocationService.isRevoked(claims)).isTrue();
+    }
+
+    @Test
+    void revocationLostToAnotherNodeStillMarksTokenRevoked() {
+        Claims claims = claims("jti-2");
+        when(tokenRevocationRepository.insertIfAbsent(eq("jti-2"), eq(1L), any(), any())).thenReturn(0);
+
+        assertThat(tokenRevocationService.revokeToken(claims)).isFalse();
+        assertThat(tokenRevocationService.isRevoked(claims)).isTrue();
+    }
+
+    @Test
+    void tokenWithoutIdCannotBeRevoked() {
+        Claims claims = claims(null);
+
+        assertThat(tokenRevocationService.revokeToken(claims)).isFalse();
+        verify(tokenRevocationRepository, never()).insertIfAbsent(anyString(), anyLong(), any(), any());
+        assertThat(tokenRevocationService.isRevoked(claims)).isFalse();
+    }
+
+    @Test
+    void unrelatedTokenIsNotRevoked() {
+        when(tokenRevocationRepository.insertIfAbsent(eq("jti-3"), eq(1L), any(), any())).thenReturn(1);
+        tokenRevocationService.revokeToken(claims("jti-3"));
+
+        assertThat(tokenRevocationService.isRevoked(claims("jti-4"))).isFalse();
+    }
+
+    private static Claims claims(String tokenId) {
+        return Jwts.claims()
+                .id(tokenId)
+                .subject("1")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .build();
+    }
+}
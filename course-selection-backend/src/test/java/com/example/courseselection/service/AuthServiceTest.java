@@ -0,0 +1,105 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.result.ResultCode;
+import com.example.courseselection.dto.response.LoginResponse;
+import com.example.courseselection.entity.User;
+import com.example.courseselection.entity.enums.UserRole;
+import com.example.courseselection.entity.enums.UserStatus;
+import com.example.courseselection.repository.StudentRepository;
+import com.example.courseselection.repository.TeacherRepository;
+import com.example.courseselection.repository.UserRepository;
+import com.example.courseselection.security.JwtTokenProvider;
+import com.example.courseselection.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    private static final String REFRESH_TOKEN = "refresh-token";
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private StudentRepository studentRepository;
+    @Mock
+    private TeacherRepository teacherRepository;
+    @Mock
+    private PasswordEncoder passwordEncoder;
+    @Mock
+    private JwtTokenProvider tokenProvider;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @InjectMocks
+    private AuthService authService;
+
+    private Claims claims;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(authService, "jwtExpiration", 86400000L);
+        claims = Jwts.claims()
+                .id("jti-1")
+                .subject("1")
+                .add("type", "refresh")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .build();
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("student");
+        user.setRealName("学生");
+        user.setRole(UserRole.STUDENT);
+        user.setStatus(UserStatus.ACTIVE);
+        when(tokenProvider.verifyToken(REFRESH_TOKEN)).thenReturn(claims);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void refreshRevokesOldTokenBeforeIssuingNewOnes() {
+        when(tokenRevocationService.revokeToken(claims)).thenReturn(true);
+        when(tokenProvider.generateToken(1L, "student", UserRole.STUDENT, "学生")).thenReturn("access");
+        when(tokenProvider.generateRefreshToken(1L)).thenReturn("refresh");
+
+        LoginResponse response = authService.refreshToken(REFRESH_TOKEN);
+
+        assertThat(response.getAccessToken()).isEqualTo("access");
+        assertThat(response.getRefreshToken()).isEqualTo("refresh");
+    }
+
+    @Test
+    void refreshLosingTheRevocationIssuesNoTokens() {
+        // 并发刷新中另一个请求已写入吊销记录
+        when(tokenRevocationService.revokeToken(claims)).thenReturn(false);
+
+        assertThatThrownBy(() -> authService.refreshToken(REFRESH_TOKEN))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(ResultCode.TOKEN_INVALID.getCode());
+        verify(tokenProvider, never()).generateToken(anyLong(), any(), any(), any());
+        verify(tokenProvider, never()).generateRefreshToken(anyLong());
+    }
+}
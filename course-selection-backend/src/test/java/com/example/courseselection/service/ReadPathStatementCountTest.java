@@ -0,0 +1,276 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.dto.response.CursorPageDTO;
+import com.example.courseselection.dto.response.CourseSelectionDTO;
+import com.example.courseselection.entity.Course;
+import com.example.courseselection.entity.CourseSchedule;
+import com.example.courseselection.entity.CourseSelection;
+import com.example.courseselection.entity.Semester;
+import com.example.courseselection.entity.Student;
+import com.example.courseselection.entity.Teacher;
+import com.example.courseselection.entity.User;
+import com.example.courseselection.entity.enums.CourseType;
+import com.example.courseselection.entity.enums.ScheduleStatus;
+import com.example.courseselection.entity.enums.SemesterType;
+import com.example.courseselection.entity.enums.UserRole;
+import com.example.courseselection.repository.CourseRepository;
+import com.example.courseselection.repository.CourseScheduleRepository;
+import com.example.courseselection.repository.CourseSelectionRepository;
+import com.example.courseselection.repository.SemesterRepository;
+import com.example.courseselection.repository.StudentRepository;
+import com.example.courseselection.repository.TeacherRepository;
+import com.example.courseselection.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 列表接口的 SQL 语句数：借助 Hibernate 统计信息，分别以小页和大页调用同一接口，
+ * 语句数必须相同且不超过固定上限，即不随页大小增长（没有 N+1 查询）。
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        // 关闭课程目录快照，可选课程列表走数据库查询
+        "app.course-selection.catalog-cache.enabled=false",
+        // 后台定时任务的查询会计入全局统计，测试期间不让它们再次执行
+        "app.course-selection.waitlist.enabled=false",
+        "app.course-selection.waitlist.sweep-interval-ms=3600000",
+        "app.course-selection.metrics.oversold-check-interval-ms=3600000",
+        "app.course-selection.token-revocation.poll-interval-ms=3600000",
+        "app.course-selection.token-revocation.cleanup-interval-ms=3600000"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class ReadPathStatementCountTest {
+
+    private static final int ROWS = 30;
+    private static final int SMALL_PAGE = 5;
+    private static final int LARGE_PAGE = 20;
+    private static final long MAX_STATEMENTS = 8;
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CourseSelectionService courseSelectionService;
+    @Autowired
+    private CourseManagementService courseManagementService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private TeacherRepository teacherRepository;
+    @Autowired
+    private SemesterRepository semesterRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseScheduleRepository courseScheduleRepository;
+    @Autowired
+    private CourseSelectionRepository courseSelectionRepository;
+
+    private Statistics statistics;
+
+    // 测试数据只准备一次，各测试方法只读
+    private static Long semesterId;
+    private static Long teacherId;
+    private static Long studentUserId;
+    private static Long rosterScheduleId;
+
+    /**
+     * 一个学期、一名教师、ROWS 门开放课程；第一名学生选了其中 ROWS - 5 门，
+     * 另有 ROWS - 6 名学生都选了第一门课程，第一门课程的名单共 ROWS - 5 人。
+     */
+    @BeforeEach
+    void seedOnce() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (semesterId != null) {
+            return;
+        }
+
+        Semester semester = new Semester();
+        semester.setName("2026秋季学期");
+        semester.setAcademicYear("2026-2027");
+        semester.setSemesterType(SemesterType.AUTUMN);
+        semester.setStartDate(LocalDate.now().minusDays(7));
+        semester.setEndDate(LocalDate.now().plusMonths(4));
+        semester.setIsCurrent(true);
+        semester = semesterRepository.save(semester);
+
+        Teacher teacher = new Teacher();
+        teacher.setUser(saveUser("teacher", UserRole.TEACHER));
+        teacher.setTeacherNumber("T0001");
+        teacher.setTitle("教授");
+        teacher = teacherRepository.save(teacher);
+        teacherId = teacher.getId();
+
+        List<CourseSchedule> schedules = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Course course = new Course();
+            course.setCourseCode("CS" + (1000 + i));
+            course.setCourseName("课程" + i);
+            course.setCourseType(CourseType.ELECTIVE);
+            course.setCredits(BigDecimal.ONE);
+            course.setTotalHours(16);
+            course = courseRepository.save(course);
+
+            CourseSchedule schedule = new CourseSchedule();
+            schedule.setCourse(course);
+            schedule.setTeacher(teacher);
+            schedule.setSemester(semester);
+            schedule.setClassName("1班");
+            schedule.setMaxStudents(100);
+            schedule.setSelectionStartTime(LocalDateTime.now().minusDays(1));
+            schedule.setSelectionEndTime(LocalDateTime.now().plusDays(7));
+            schedule.setStatus(ScheduleStatus.OPEN);
+            schedules.add(courseScheduleRepository.save(schedule));
+        }
+        rosterScheduleId = schedules.get(0).getId();
+
+        List<CourseSelection> selections = new ArrayList<>();
+        Student first = saveStudent(0);
+        studentUserId = first.getUser().getId();
+        for (int i = 0; i < ROWS - 5; i++) {
+            selections.add(selection(first, schedules.get(i), i));
+        }
+        for (int i = 1; i < ROWS - 5; i++) {
+            selections.add(selection(saveStudent(i), schedules.get(0), i));
+        }
+        courseSelectionRepository.saveAll(selections);
+        semesterId = semester.getId();
+    }
+
+    @Test
+    void availableCourses() {
+        assertConstantStatements(size -> courseSelectionService.getAvailableCourses(
+                studentUserId, PageRequest.of(0, size, Sort.by("courseName")), null));
+    }
+
+    @Test
+    void mySelectedCourses() {
+        assertConstantStatements(size -> courseSelectionService.getMySelectedCourses(
+                studentUserId, PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "selectionTime"))));
+    }
+
+    @Test
+    void studentsByCourseSchedule() {
+        assertConstantStatements(size -> courseSelectionService.getStudentsByCourseSchedule(
+                teacherId, rosterScheduleId, PageRequest.of(0, size, Sort.by("studentNumber"))));
+    }
+
+    @Test
+    void adminCourseSchedules() {
+        assertConstantStatements(size -> courseManagementService.getCourseSchedules(
+                semesterId, PageRequest.of(0, size, Sort.by("teacherName"))));
+    }
+
+    @Test
+    void courseSchedulesByCursor() {
+        String cursor = courseManagementService.getCourseSchedulesByCursor(semesterId, null, SMALL_PAGE)
+                .getNextCursor();
+        assertThat(cursor).isNotNull();
+        assertConstantStatements(size -> courseManagementService.getCourseSchedulesByCursor(semesterId, null, size));
+        assertConstantStatements(size -> courseManagementService.getCourseSchedulesByCursor(semesterId, cursor, size));
+    }
+
+    @Test
+    void mySelectedCoursesByCursor() {
+        CursorPageDTO<CourseSelectionDTO> firstPage =
+                courseSelectionService.getMySelectedCoursesByCursor(studentUserId, null, SMALL_PAGE);
+        String cursor = firstPage.getNextCursor();
+        assertThat(cursor).isNotNull();
+        assertConstantStatements(size -> courseSelectionService.getMySelectedCoursesByCursor(studentUserId, null, size));
+        assertConstantStatements(size -> courseSelectionService.getMySelectedCoursesByCursor(studentUserId, cursor, size));
+
+        // 第二页紧接在第一页之后，不重复也不遗漏
+        CursorPageDTO<CourseSelectionDTO> secondPage =
+                courseSelectionService.getMySelectedCoursesByCursor(studentUserId, cursor, SMALL_PAGE);
+        CourseSelectionDTO lastOfFirst = firstPage.getContent().get(SMALL_PAGE - 1);
+        CourseSelectionDTO firstOfSecond = secondPage.getContent().get(0);
+        assertThat(firstOfSecond.getSelectionTime()).isBeforeOrEqualTo(lastOfFirst.getSelectionTime());
+        assertThat(firstOfSecond.getId()).isNotEqualTo(lastOfFirst.getId());
+    }
+
+    @Test
+    void studentsByCourseScheduleByCursor() {
+        String cursor = courseSelectionService.getStudentsByCourseScheduleByCursor(
+                teacherId, rosterScheduleId, null, SMALL_PAGE).getNextCursor();
+        assertThat(cursor).isNotNull();
+        assertConstantStatements(size -> courseSelectionService.getStudentsByCourseScheduleByCursor(
+                teacherId, rosterScheduleId, null, size));
+        assertConstantStatements(size -> courseSelectionService.getStudentsByCourseScheduleByCursor(
+                teacherId, rosterScheduleId, cursor, size));
+    }
+
+    /**
+     * 两种页大小都取满整页，分页查询的计数语句在两次调用中同样执行。
+     */
+    private void assertConstantStatements(IntConsumer call) {
+        long small = statementsOf(call, SMALL_PAGE);
+        long large = statementsOf(call, LARGE_PAGE);
+        assertThat(large).isEqualTo(small);
+        assertThat(small).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    private long statementsOf(IntConsumer call, int size) {
+        statistics.clear();
+        call.accept(size);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User saveUser(String username, UserRole role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("{noop}password");
+        user.setRealName(username);
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private Student saveStudent(int index) {
+        Student student = new Student();
+        student.setUser(saveUser("student" + index, UserRole.STUDENT));
+        student.setStudentNumber(String.format("S%04d", index));
+        return studentRepository.save(student);
+    }
+
+    private static CourseSelection selection(Student student, CourseSchedule schedule, int minutesAgo) {
+        CourseSelection selection = new CourseSelection();
+        selection.setStudent(student);
+        selection.setCourseSchedule(schedule);
+        selection.setSelectionTime(LocalDateTime.now().minusMinutes(minutesAgo));
+        return selection;
+    }
+}
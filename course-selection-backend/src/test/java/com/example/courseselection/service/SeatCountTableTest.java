@@ -0,0 +1,69 @@
+package com.example.courseselection.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeatCountTableTest {
+
+    private final SeatCountTable table = new SeatCountTable();
+
+    @Test
+    void resetReplacesCountsAndDropsMissingSchedules() {
+        table.reset(Map.of(1L, 10, 2L, 20), table.getVersion());
+
+        table.reset(Map.of(1L, 11, 3L, 30), table.getVersion());
+
+        assertThat(table.get(1L)).isEqualTo(11);
+        assertThat(table.get(2L)).isEqualTo(SeatCountTable.ABSENT);
+        assertThat(table.get(3L)).isEqualTo(30);
+    }
+
+    @Test
+    void resetKeepsCountsAdjustedAfterTheRead() {
+        table.reset(Map.of(1L, 10, 2L, 20), table.getVersion());
+
+        // 重建读取数据库之后、替换之前提交了一次选课
+        long readVersion = table.getVersion();
+        Map<Long, Integer> readFromDatabase = Map.of(1L, 10, 2L, 19);
+        table.adjust(1L, 1);
+
+        table.reset(readFromDatabase, readVersion);
+
+        assertThat(table.get(1L)).isEqualTo(11);
+        assertThat(table.get(2L)).isEqualTo(19);
+    }
+
+    @Test
+    void putAllKeepsCountsAdjustedAfterTheRead() {
+        table.reset(Map.of(1L, 10), table.getVersion());
+
+        long readVersion = table.getVersion();
+        table.adjust(1L, -1);
+        table.putAll(Map.of(1L, 10, 2L, 5), readVersion);
+
+        assertThat(table.get(1L)).isEqualTo(9);
+        assertThat(table.get(2L)).isEqualTo(5);
+    }
+
+    @Test
+    void reloadReportsAddedAndChangedSchedules() {
+        table.reset(Map.of(1L, 10, 2L, 20), table.getVersion());
+
+        assertThat(table.reset(Map.of(1L, 10, 2L, 21, 3L, 0), table.getVersion())).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(table.putAll(Map.of(1L, 12), table.getVersion())).containsExactly(1L);
+        assertThat(table.putAll(Map.of(1L, 12), table.getVersion())).isEmpty();
+    }
+
+    @Test
+    void unchangedResetKeepsVersion() {
+        table.reset(Map.of(1L, 10), table.getVersion());
+        long version = table.getVersion();
+
+        table.reset(Map.of(1L, 10), version);
+
+        assertThat(table.getVersion()).isEqualTo(version);
+    }
+}
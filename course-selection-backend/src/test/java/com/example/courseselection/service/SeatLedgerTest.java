@@ -0,0 +1,286 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.metrics.SelectionMetrics;
+import com.example.courseselection.common.result.ResultCode;
+import com.example.courseselection.dto.response.CourseScheduleDTO;
+import com.example.courseselection.dto.response.CourseSelectionDTO;
+import com.example.courseselection.entity.Course;
+import com.example.courseselection.entity.CourseSchedule;
+import com.example.courseselection.entity.Semester;
+import com.example.courseselection.entity.Student;
+import com.example.courseselection.entity.enums.ScheduleStatus;
+import com.example.courseselection.repository.CourseScheduleRepository;
+import com.example.courseselection.repository.CourseSelectionRepository;
+import com.example.courseselection.repository.SemesterRepository;
+import com.example.courseselection.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SeatLedgerTest {
+
+    private static final Long SEMESTER_ID = 1L;
+    private static final Long SCHEDULE_ID = 100L;
+
+    @Mock
+    private CourseScheduleRepository courseScheduleRepository;
+    @Mock
+    private CourseSelectionRepository courseSelectionRepository;
+    @Mock
+    private SemesterRepository semesterRepository;
+    @Mock
+    private StudentRepository studentRepository;
+    @Mock
+    private SeatWriteBehindService seatWriteBehindService;
+    @Mock
+    private SelectionMetrics selectionMetrics;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SeatLedger seatLedger;
+
+    @BeforeEach
+    void setUp() {
+        seatLedger = new SeatLedger(courseScheduleRepository, courseSelectionRepository, semesterRepository,
+                studentRepository, seatWriteBehindService, selectionMetrics, eventPublisher);
+        ReflectionTestUtils.setField(seatLedger, "enabled", true);
+        ReflectionTestUtils.setField(seatLedger, "batchSize", 200);
+        ReflectionTestUtils.setField(seatLedger, "defaultMaxCredits", 30);
+        ReflectionTestUtils.setField(seatLedger, "defaultDropDays", 14);
+
+        Semester semester = new Semester();
+        semester.setId(SEMESTER_ID);
+        when(semesterRepository.findCurrentSemester()).thenReturn(Optional.of(semester));
+        for (long userId = 1; userId <= 3; userId++) {
+            Student student = new Student();
+            student.setId(userId + 10);
+            student.setMaxCredits(30);
+            when(studentRepository.findByUserId(userId)).thenReturn(Optional.of(student));
+        }
+    }
+
+    @Test
+    void selectRejectsWhenScheduleIsFull() {
+        load(1, 0);
+
+        assertThat(seatLedger.select(1L, SCHEDULE_ID)).isTrue();
+        assertThatThrownBy(() -> seatLedger.select(2L, SCHEDULE_ID))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(ResultCode.COURSE_FULL.getCode());
+        assertThat(seatLedger.getCurrentStudents(SCHEDULE_ID)).isEqualTo(1);
+    }
+
+    @Test
+    void selectFallsBackForUntrackedSchedule() {
+        load(1, 0);
+
+        assertThat(seatLedger.select(1L, SCHEDULE_ID + 1)).isFalse();
+    }
+
+    @Test
+    void reconcileDoesNotOverwriteReservationTakenDuringCount() {
+        load(1, 0);
+        // 核对读取数据库人数期间另一学生占座
+        when(courseSelectionRepository.countSelectedStudentsByCourseSchedule(SCHEDULE_ID)).thenAnswer(invocation -> {
+            seatLedger.select(1L, SCHEDULE_ID);
+            return 0L;
+        });
+
+        seatLedger.reconcile();
+
+        assertThat(seatLedger.getCurrentStudents(SCHEDULE_ID)).isEqualTo(1);
+        assertThatThrownBy(() -> seatLedger.select(2L, SCHEDULE_ID))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(ResultCode.COURSE_FULL.getCode());
+        verify(seatWriteBehindService, never()).syncCurrentStudents(any(), any(Integer.class));
+    }
+
+    @Test
+    void reconcileKeepsPendingSelectionsAndCorrectsDrift() {
+        load(10, 5);
+        seatLedger.select(1L, SCHEDULE_ID);
+        when(courseSelectionRepository.countSelectedStudentsByCourseSchedule(SCHEDULE_ID)).thenReturn(3L);
+
+        seatLedger.reconcile();
+
+        // 已持久化 3 人加 1 个待写回选课
+        assertThat(seatLedger.getCurrentStudents(SCHEDULE_ID)).isEqualTo(4);
+        verify(seatWriteBehindService).syncCurrentStudents(SCHEDULE_ID, 3);
+    }
+
+    @Test
+    void dropReleasesSeatOnlyAfterWriteSucceeds() {
+        load(1, 1);
+        selectedInDatabase(1L);
+
+        assertThat(seatLedger.drop(1L, SCHEDULE_ID)).isTrue();
+        assertThat(seatLedger.getCurrentStudents(SCHEDULE_ID)).isEqualTo(1);
+        assertThatThrownBy(() -> seatLedger.select(2L, SCHEDULE_ID))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(ResultCode.COURSE_FULL.getCode());
+
+        seatLedger.flush();
+
+        assertThat(seatLedger.getCurrentStudents(SCHEDULE_ID)).isEqualTo(0);
+        verify(eventPublisher).publishEvent(any(SeatReleasedEvent.class));
+        assertThat(seatLedger.select(2L, SCHEDULE_ID)).isTrue();
+    }
+
+    @Test
+    void failedDropKeepsSeatForOriginalStudent() {
+        load(1, 1);
+        selectedInDatabase(1L);
+        doThrow(new IllegalStateException("boom")).when(seatWriteBehindService).applyBatch(anyList());
+        doThrow(new IllegalStateException("boom")).when(seatWriteBehindService).applyOne(any());
+
+        seatLedger.drop(1L, SCHEDULE_ID);
+        seatLedger.flush();
+
+        assertThat(seatLedger.getCurrentStudents(SCHEDULE_ID)).isEqualTo(1);
+        assertThat(seatLedger.isPending(11L, SCHEDULE_ID)).isFalse();
+        verify(eventPublisher, never()).publishEvent(any(SeatReleasedEvent.class));
+    }
+
+    @Test
+    void failedSelectReturnsSeat() {
+        load(1, 0);
+        doThrow(new IllegalStateException("boom")).when(seatWriteBehindService).applyBatch(anyList());
+        doThrow(new IllegalStateException("boom")).when(seatWriteBehindService).applyOne(any());
+
+        seatLedger.select(1L, SCHEDULE_ID);
+        seatLedger.flush();
+
+        assertThat(seatLedger.getCurrentStudents(SCHEDULE_ID)).isEqualTo(0);
+        assertThat(seatLedger.select(2L, SCHEDULE_ID)).isTrue();
+    }
+
+    @Test
+    void selectRejectsSecondSelectionWhilePending() {
+        load(10, 0);
+
+        seatLedger.select(1L, SCHEDULE_ID);
+
+        assertThatThrownBy(() -> seatLedger.select(1L, SCHEDULE_ID))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(ResultCode.SELECTION_PENDING.getCode());
+    }
+
+    @Test
+    void retrackingOpenScheduleKeepsUnflushedReservations() {
+        load(2, 0);
+        seatLedger.select(1L, SCHEDULE_ID);
+
+        // 已开放的课程再次设为开放，数据库人数仍落后于账本
+        seatLedger.track(openSchedule(2, 0));
+
+        assertThat(seatLedger.getCurrentStudents(SCHEDULE_ID)).isEqualTo(1);
+        assertThat(seatLedger.select(2L, SCHEDULE_ID)).isTrue();
+        assertThatThrownBy(() -> seatLedger.select(3L, SCHEDULE_ID))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(ResultCode.COURSE_FULL.getCode());
+    }
+
+    @Test
+    void retrackingUpdatesCapacity() {
+        load(1, 0);
+        seatLedger.select(1L, SCHEDULE_ID);
+
+        seatLedger.track(openSchedule(2, 0));
+
+        assertThat(seatLedger.select(2L, SCHEDULE_ID)).isTrue();
+    }
+
+    @Test
+    void trackingCountsPendingSelectionsOfPreviouslyTrackedSchedule() {
+        load(2, 0);
+        seatLedger.select(1L, SCHEDULE_ID);
+        seatLedger.untrack(SCHEDULE_ID);
+        when(courseSelectionRepository.countSelectedStudentsByCourseSchedule(SCHEDULE_ID)).thenReturn(0L);
+
+        seatLedger.track(openSchedule(2, 0));
+
+        assertThat(seatLedger.getCurrentStudents(SCHEDULE_ID)).isEqualTo(1);
+        seatLedger.flush();
+        assertThat(seatLedger.getCurrentStudents(SCHEDULE_ID)).isEqualTo(1);
+    }
+
+    @Test
+    void untrackTakesEffectAfterCommit() {
+        load(1, 0);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            seatLedger.untrack(SCHEDULE_ID);
+            assertThat(seatLedger.isTracked(SCHEDULE_ID)).isTrue();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(seatLedger.isTracked(SCHEDULE_ID)).isFalse();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private CourseSchedule openSchedule(int maxStudents, int currentStudents) {
+        Semester semester = new Semester();
+        semester.setId(SEMESTER_ID);
+        Course course = new Course();
+        course.setCredits(new BigDecimal("3.0"));
+        CourseSchedule schedule = new CourseSchedule();
+        schedule.setId(SCHEDULE_ID);
+        schedule.setSemester(semester);
+        schedule.setCourse(course);
+        schedule.setMaxStudents(maxStudents);
+        schedule.setCurrentStudents(currentStudents);
+        schedule.setStatus(ScheduleStatus.OPEN);
+        schedule.setSelectionStartTime(LocalDateTime.now().minusDays(1));
+        schedule.setSelectionEndTime(LocalDateTime.now().plusDays(1));
+        return schedule;
+    }
+
+    private void load(int maxStudents, int currentStudents) {
+        CourseScheduleDTO schedule = new CourseScheduleDTO();
+        schedule.setId(SCHEDULE_ID);
+        schedule.setMaxStudents(maxStudents);
+        schedule.setCurrentStudents(currentStudents);
+        schedule.setSemesterId(SEMESTER_ID);
+        schedule.setCredits(new BigDecimal("3.0"));
+        schedule.setStatus(ScheduleStatus.OPEN);
+        schedule.setSelectionStartTime(LocalDateTime.now().minusDays(1));
+        schedule.setSelectionEndTime(LocalDateTime.now().plusDays(1));
+        when(courseScheduleRepository.findOpenScheduleDTOsBySemesterId(SEMESTER_ID)).thenReturn(List.of(schedule));
+        seatLedger.load();
+    }
+
+    private void selectedInDatabase(Long userId) {
+        CourseSelectionDTO selection = new CourseSelectionDTO();
+        selection.setCourseScheduleId(SCHEDULE_ID);
+        selection.setCredits(new BigDecimal("3.0"));
+        when(courseSelectionRepository.findSelectionDTOsByStudentIdAndSemesterIdAndStatus(
+                eq(userId + 10), eq(SEMESTER_ID), any())).thenReturn(List.of(selection));
+    }
+}
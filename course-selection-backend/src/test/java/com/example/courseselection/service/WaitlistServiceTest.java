@@ -0,0 +1,87 @@
+package com.example.courseselection.service;
+
+import com.example.courseselection.common.exception.BusinessException;
+import com.example.courseselection.common.result.ResultCode;
+import com.example.courseselection.entity.CourseSchedule;
+import com.example.courseselection.entity.Student;
+import com.example.courseselection.entity.enums.ScheduleStatus;
+import com.example.courseselection.repository.CourseScheduleRepository;
+import com.example.courseselection.repository.CourseSelectionRepository;
+import com.example.courseselection.repository.StudentRepository;
+import com.example.courseselection.repository.WaitlistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long SCHEDULE_ID = 100L;
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+    @Mock
+    private StudentRepository studentRepository;
+    @Mock
+    private CourseScheduleRepository courseScheduleRepository;
+    @Mock
+    private CourseSelectionRepository courseSelectionRepository;
+    @Mock
+    private CourseSelectionService courseSelectionService;
+    @Mock
+    private SeatLedger seatLedger;
+
+    @InjectMocks
+    private WaitlistService waitlistService;
+
+    @BeforeEach
+    void setUp() {
+        Student student = new Student();
+        student.setId(11L);
+        when(studentRepository.findByUserId(USER_ID)).thenReturn(Optional.of(student));
+    }
+
+    @Test
+    void joinUsesLedgerCountWhenDatabaseLagsBehind() {
+        // 数据库中尚未写回，账本已满
+        schedule(2, 1);
+        when(seatLedger.isTracked(SCHEDULE_ID)).thenReturn(true);
+        when(seatLedger.getCurrentStudents(SCHEDULE_ID)).thenReturn(2);
+        when(waitlistRepository.findByStudentIdAndCourseScheduleId(11L, SCHEDULE_ID)).thenReturn(Optional.empty());
+        when(waitlistRepository.countWaitingAhead(any(), any())).thenReturn(0L);
+
+        assertThat(waitlistService.joinWaitlist(USER_ID, SCHEDULE_ID)).isZero();
+    }
+
+    @Test
+    void joinRejectsWhenLedgerHasFreeSeats() {
+        // 数据库人数已满，账本中的退课已释放座位
+        schedule(2, 2);
+        when(seatLedger.isTracked(SCHEDULE_ID)).thenReturn(true);
+        when(seatLedger.getCurrentStudents(SCHEDULE_ID)).thenReturn(1);
+
+        assertThatThrownBy(() -> waitlistService.joinWaitlist(USER_ID, SCHEDULE_ID))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(ResultCode.COURSE_NOT_FULL.getCode());
+    }
+
+    private void schedule(int maxStudents, int currentStudents) {
+        CourseSchedule schedule = new CourseSchedule();
+        schedule.setId(SCHEDULE_ID);
+        schedule.setMaxStudents(maxStudents);
+        schedule.setCurrentStudents(currentStudents);
+        schedule.setStatus(ScheduleStatus.OPEN);
+        when(courseScheduleRepository.findById(SCHEDULE_ID)).thenReturn(Optional.of(schedule));
+    }
+}
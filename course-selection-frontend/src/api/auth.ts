@@ -20,8 +20,8 @@ export const authApi = {
   },
   
   // 登出
-  logout(): Promise<void> {
-    return http.post('/auth/logout')
+  logout(refreshToken?: string): Promise<void> {
+    return http.post('/auth/logout', { refreshToken })
   },
   
   // 获取当前用户信息
@@ -1,11 +1,14 @@
 import { http } from '@/utils/request'
+import { useUserStore } from '@/stores/user'
 import type { 
   CourseSchedule, 
   CourseSelection, 
   CourseSelectionRequest,
   Course,
   CourseCreateRequest,
-  CourseScheduleCreateRequest
+  CourseScheduleCreateRequest,
+  SeatAvailabilityHandlers,
+  SeatAvailabilityUpdate
 } from '@/types/course'
 import type { PageRequest, PageResponse } from '@/types/api'
 
@@ -23,6 +26,81 @@ export const courseApi = {
     return http.post(`/course-selection/drop/${courseScheduleId}`)
   },
   
+  // 订阅座位变化推送（SSE）。EventSource 无法携带 Authorization 头，这里用 fetch 读取事件流；
+  // 断线后自动重连，返回取消订阅函数
+  subscribeSeatAvailability(handlers: SeatAvailabilityHandlers): () => void {
+    const controller = new AbortController()
+    let retryDelay = 1000
+
+    const dispatch = (event: string, data: string) => {
+      if (event === 'seats') {
+        handlers.onSeats(JSON.parse(data) as SeatAvailabilityUpdate)
+      } else if (event === 'resync' || event === 'ready') {
+        handlers.onResync?.()
+      } else if (event === 'unavailable') {
+        // 服务端连接数已满，延长重连间隔
+        retryDelay = Math.max(retryDelay, 15000)
+      }
+    }
+
+    const connect = async () => {
+      try {
+        const response = await fetch(`${import.meta.env.VITE_API_BASE_URL}/course-selection/stream`, {
+          headers: {
+            Accept: 'text/event-stream',
+            Authorization: `Bearer ${useUserStore().token}`
+          },
+          signal: controller.signal
+        })
+        if (!response.ok || !response.body) {
+          throw new Error(`座位推送连接失败: ${response.status}`)
+        }
+        retryDelay = 1000
+
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader()
+        let buffer = ''
+        for (;;) {
+          const { value, done } = await reader.read()
+          if (done) {
+            break
+          }
+          buffer += value
+          // 事件之间以空行分隔
+          let boundary = buffer.indexOf('\n\n')
+          while (boundary >= 0) {
+            const block = buffer.slice(0, boundary)
+            buffer = buffer.slice(boundary + 2)
+            let event = 'message'
+            const data: string[] = []
+            for (const line of block.split('\n')) {
+              if (line.startsWith('event:')) {
+                event = line.slice(6).trim()
+              } else if (line.startsWith('data:')) {
+                data.push(line.slice(5).trimStart())
+              }
+            }
+            if (data.length > 0) {
+              dispatch(event, data.join('\n'))
+            }
+            boundary = buffer.indexOf('\n\n')
+          }
+        }
+      } catch (error) {
+        if (controller.signal.aborted) {
+          return
+        }
+        console.warn('座位推送连接中断:', error)
+      }
+      if (!controller.signal.aborted) {
+        setTimeout(connect, retryDelay)
+        retryDelay = Math.min(retryDelay * 2, 30000)
+      }
+    }
+
+    connect()
+    return () => controller.abort()
+  },
+  
   getMySelectedCourses(params: PageRequest): Promise<PageResponse<CourseSelection>> {
     return http.get('/course-selection/my-courses', { params })
   },
@@ -66,6 +144,12 @@ export const courseApi = {
     })
   },
   
+  updateCourseScheduleCapacity(scheduleId: number, maxStudents: number): Promise<void> {
+    return http.put(`/admin/course-management/course-schedules/${scheduleId}/capacity`, null, {
+      params: { maxStudents }
+    })
+  },
+  
   deleteCourseSchedule(scheduleId: number): Promise<void> {
     return http.delete(`/admin/course-management/course-schedules/${scheduleId}`)
   }
@@ -69,7 +69,7 @@ export const useUserStore = defineStore('user', () => {
   const logout = async () => {
     try {
       if (token.value) {
-        await authApi.logout()
+        await authApi.logout(refreshToken.value || undefined)
       }
     } catch (error) {
       console.error('登出失败:', error)
@@ -151,4 +151,16 @@ export interface CourseScheduleCreateRequest {
 
 export interface CourseSelectionRequest {
   courseScheduleId: number
-}
\ No newline at end of file
+}
+
+// 座位变化推送：courseScheduleId -> 当前已选人数
+export interface SeatAvailabilityUpdate {
+  seq: number
+  seats: Record<string, number>
+}
+
+export interface SeatAvailabilityHandlers {
+  onSeats: (update: SeatAvailabilityUpdate) => void
+  // 推送积压过多或重连后，需要重新拉取课程列表
+  onResync?: () => void
+}
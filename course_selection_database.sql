@@ -107,6 +107,7 @@ CREATE TABLE course_schedules (
     selection_start_time DATETIME COMMENT '选课开始时间',
     selection_end_time DATETIME COMMENT '选课结束时间',
     status ENUM('PENDING', 'OPEN', 'CLOSED', 'CANCELLED') DEFAULT 'PENDING' COMMENT '状态',
+    version BIGINT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
@@ -132,8 +133,8 @@ CREATE TABLE course_selections (
     FOREIGN KEY (student_id) REFERENCES students(id) ON DELETE CASCADE,
     FOREIGN KEY (course_schedule_id) REFERENCES course_schedules(id) ON DELETE CASCADE,
     UNIQUE KEY uk_student_course_schedule (student_id, course_schedule_id),
-    INDEX idx_student_status (student_id, status),
-    INDEX idx_course_schedule (course_schedule_id),
+    INDEX idx_student_status (student_id, status, selection_time),
+    INDEX idx_course_schedule (course_schedule_id, selection_time),
     INDEX idx_selection_time (selection_time)
 ) COMMENT='选课记录表';
 
@@ -179,6 +180,60 @@ CREATE TABLE system_config (
     INDEX idx_config_key (config_key)
 ) COMMENT='系统配置表';
 
+-- 11. 学生学期选课汇总表 (随选课/退课同事务维护)
+CREATE TABLE student_semester_summary (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    student_id BIGINT NOT NULL COMMENT '学生ID',
+    semester_id BIGINT NOT NULL COMMENT '学期ID',
+    total_credits DECIMAL(5,1) NOT NULL DEFAULT 0 COMMENT '已选学分',
+    selected_count INT NOT NULL DEFAULT 0 COMMENT '已选课程数',
+    version BIGINT NOT NULL DEFAULT 0 COMMENT '版本号，每次变化递增',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (student_id) REFERENCES students(id) ON DELETE CASCADE,
+    FOREIGN KEY (semester_id) REFERENCES semesters(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_student_semester (student_id, semester_id)
+) COMMENT='学生学期选课汇总表';
+
+-- 12. 令牌吊销表 (登出与账号停用，各节点定期增量加载到内存)
+CREATE TABLE token_revocations (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    token_id VARCHAR(64) COMMENT '被吊销令牌的jti，为空表示按用户吊销',
+    user_id BIGINT COMMENT '用户ID',
+    not_before DATETIME COMMENT '该用户在此时间之前签发的令牌均无效',
+    created_at DATETIME NOT NULL COMMENT '吊销时间',
+    expires_at DATETIME NOT NULL COMMENT '被吊销令牌的最晚过期时间，之后可删除',
+    UNIQUE KEY uk_token_id (token_id),
+    INDEX idx_created_at (created_at),
+    INDEX idx_expires_at (expires_at)
+) COMMENT='令牌吊销表';
+
+-- 13. 幂等键表 (app.idempotency.store=jdbc 时使用，选课/退课的 Idempotency-Key 与确定结果的响应)
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(200) PRIMARY KEY COMMENT '用户ID、接口路径与客户端幂等键',
+    http_status INT COMMENT '响应状态码，为空表示处理中',
+    content_type VARCHAR(100) COMMENT '响应类型',
+    response_body BLOB COMMENT '响应内容',
+    created_at DATETIME NOT NULL COMMENT '创建时间',
+    expires_at DATETIME NOT NULL COMMENT '过期时间',
+    INDEX idx_expires_at (expires_at)
+) COMMENT='幂等键表';
+
+-- 14. 候补队列表 (满员课程按加入顺序递补，递补查询按 course_schedule_id, status, queued_at 加锁跳过)
+CREATE TABLE waitlist (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    student_id BIGINT NOT NULL COMMENT '学生ID',
+    course_schedule_id BIGINT NOT NULL COMMENT '课程安排ID',
+    status ENUM('WAITING', 'PROMOTED', 'CANCELLED') NOT NULL DEFAULT 'WAITING' COMMENT '候补状态',
+    queued_at DATETIME NOT NULL COMMENT '加入候补时间',
+    processed_at DATETIME COMMENT '递补或取消时间',
+    remark VARCHAR(200) COMMENT '处理说明',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (student_id) REFERENCES students(id) ON DELETE CASCADE,
+    FOREIGN KEY (course_schedule_id) REFERENCES course_schedules(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_student_course_schedule (student_id, course_schedule_id),
+    INDEX idx_waitlist_schedule_status (course_schedule_id, status, queued_at)
+) COMMENT='候补队列表';
+
 -- 插入默认数据
 -- 默认管理员用户
 INSERT INTO users (username, password, real_name, role) 